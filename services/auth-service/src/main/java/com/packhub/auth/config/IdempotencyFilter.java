@@ -0,0 +1,294 @@
+package com.packhub.auth.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Suporte ao header {@code Idempotency-Key} no cadastro de usuários: a retentativa de um POST /users que já
+ * terminou recebe a resposta guardada, sem calcular o BCrypt de novo só para esbarrar no usuário já criado.
+ * <p>
+ * A chave vale por caminho e por usuário autenticado; como o cadastro é anônimo, em geral ela fica no escopo do
+ * endereço do cliente. Enquanto a primeira requisição ainda roda, as repetições recebem 409; a mesma chave com
+ * outro corpo (comparado pelo SHA-256) recebe 422. Respostas 5xx não são guardadas. As chaves ficam em memória,
+ * por instância, limitadas por {@code auth.idempotency.max-size} e pelo TTL.
+ * <p>
+ * O product-service tem uma cópia deste filtro: os serviços são construídos e empacotados separadamente, sem módulo
+ * compartilhado. Mudanças aqui devem ser levadas para lá.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final AuthenticationTrustResolver TRUST_RESOLVER = new AuthenticationTrustResolverImpl();
+    private static final List<String> STORED_HEADERS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+
+    private final Set<String> paths;
+    private final Duration inFlightTimeout;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyFilter(@Value("${auth.idempotency.paths:/users}") List<String> paths,
+                             @Value("${auth.idempotency.max-size:64MB}") DataSize maxSize,
+                             @Value("${auth.idempotency.ttl:PT24H}") Duration ttl,
+                             @Value("${auth.idempotency.in-flight-timeout:PT2M}") Duration inFlightTimeout,
+                             ObjectMapper objectMapper) {
+        this.paths = Set.copyOf(paths);
+        this.inFlightTimeout = inFlightTimeout;
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.weight())
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(KEY_HEADER) == null
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "Idempotency-Key deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres");
+            return;
+        }
+        if (!isMultipart(request)) {
+            request = new CachedBodyRequest(request);
+        }
+        String fingerprint = fingerprint(request);
+        if (fingerprint == null) {
+            // Multipart inválido ou acima do limite: segue sem idempotência e o Spring responde o erro adequado.
+            chain.doFilter(request, response);
+            return;
+        }
+        String scopedKey = scope(request) + ':' + request.getRequestURI() + ':' + key;
+        long now = System.nanoTime();
+
+        Entry mine = new Entry(fingerprint, now, null);
+        Entry current = entries.asMap().putIfAbsent(scopedKey, mine);
+        if (current != null) {
+            if (!current.fingerprint().equals(fingerprint)) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key já usada em outra requisição");
+                return;
+            }
+            if (current.response() != null) {
+                replay(current.response(), response);
+                return;
+            }
+            // Requisição anterior ainda em andamento, a não ser que tenha passado do tempo limite sem terminar.
+            boolean abandoned = now - current.startedAt() > inFlightTimeout.toNanos();
+            if (!abandoned || !entries.asMap().replace(scopedKey, current, mine)) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                reject(response, HttpStatus.CONFLICT, "Requisição com esta Idempotency-Key ainda em processamento");
+                return;
+            }
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() < 500) {
+                stored = entries.asMap().replace(scopedKey, mine,
+                        new Entry(fingerprint, now, StoredResponse.from(wrapper)));
+            }
+        } finally {
+            if (!stored) {
+                entries.asMap().remove(scopedKey, mine);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    // O AnonymousAuthenticationToken também responde isAuthenticated() = true, então o anônimo é testado à parte.
+    private static String scope(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() && !TRUST_RESOLVER.isAnonymous(authentication)
+                ? "user:" + authentication.getName()
+                : "client:" + request.getRemoteAddr();
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        return request.getContentType() != null
+                && request.getContentType().toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    /**
+     * SHA-256 do corpo. O multipart é lido pelas partes que o container já separou (e que o controller continua
+     * lendo depois); os demais corpos já foram lidos pelo {@link CachedBodyRequest}. Devolve null se o multipart
+     * não puder ser lido.
+     */
+    private static String fingerprint(HttpServletRequest request) throws IOException {
+        MessageDigest digest = sha256();
+        if (request instanceof CachedBodyRequest cached) {
+            digest.update(cached.body);
+        } else {
+            try {
+                for (Part part : request.getParts()) {
+                    String header = part.getName() + '\0' + part.getSubmittedFileName() + '\0'
+                            + part.getContentType() + '\0' + part.getSize() + '\0';
+                    digest.update(header.getBytes(StandardCharsets.UTF_8));
+                    try (InputStream in = part.getInputStream()) {
+                        in.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+                    }
+                }
+            } catch (ServletException | IllegalStateException e) {
+                return null;
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach(response::setHeader);
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message));
+    }
+
+    private record Entry(String fingerprint, long startedAt, StoredResponse response) {
+        int weight() {
+            return response == null ? 128 : 128 + response.body().length;
+        }
+    }
+
+    // Corpo lido de uma vez para o hash e entregue de novo a quem ler a requisição depois.
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+
+    private record StoredResponse(int status, Map<String, String> headers, byte[] body) {
+        static StoredResponse from(ContentCachingResponseWrapper wrapper) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : STORED_HEADERS) {
+                String value = wrapper.getHeader(name);
+                if (value != null) {
+                    headers.put(name, value);
+                }
+            }
+            if (wrapper.getContentType() != null) {
+                headers.put(HttpHeaders.CONTENT_TYPE, wrapper.getContentType());
+            }
+            return new StoredResponse(wrapper.getStatus(), headers, wrapper.getContentAsByteArray());
+        }
+    }
+}
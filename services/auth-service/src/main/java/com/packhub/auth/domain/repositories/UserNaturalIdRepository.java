@@ -0,0 +1,13 @@
+package com.packhub.auth.domain.repositories;
+
+import com.packhub.auth.domain.entities.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    /**
+     * Busca pela chave natural; com o cache de segundo nível aquecido não executa SQL.
+     */
+    Optional<User> findByUserCode(int userCode);
+}
@@ -0,0 +1,24 @@
+package com.packhub.auth.domain.repositories;
+
+import com.packhub.auth.domain.entities.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Uma consulta derivada (WHERE user_code = ?) iria sempre ao banco; a API de natural id passa pelo cache.
+class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUserCode(int userCode) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(userCode);
+    }
+}
@@ -4,10 +4,6 @@ import com.packhub.auth.domain.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
-
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>  {
-
-    Optional<User> findByUserCode(int userCode);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
 }
@@ -30,6 +30,9 @@ public class UserService {
     @Autowired
     private JwtConfig jwtConfig;
 
+    @Autowired
+    private SingleFlight singleFlight;
+
     @Transactional
     public UserDTO register(RegisterDTO dto) {
         if (userRepository.findByUserCode(dto.getUserCode()).isPresent()) {
@@ -66,8 +69,11 @@ public class UserService {
         return this.userRepository.findAll();
     }
 
-    public Optional<User> getUserById(Long id) {
-        return this.userRepository.findById(id);
+    // Buscas simultâneas pelo mesmo id compartilham uma consulta. O resultado vira DTO dentro da chamada: a
+    // entidade é do EntityManager da thread que consultou e não pode ser entregue às demais.
+    public Optional<UserDTO> getUserById(Long id) {
+        return singleFlight.execute("user:" + id, () -> this.userRepository.findById(id)
+                .map(user -> new UserDTO(user.getId(), user.getUserCode())));
     }
 
     public User updateUser(Long id, RegisterDTO user) {
@@ -1,5 +1,6 @@
 package com.packhub.auth.web;
 
+import com.packhub.auth.config.IdempotencyFilter;
 import com.packhub.auth.domain.entities.User;
 import com.packhub.auth.domain.service.UserService;
 import com.packhub.auth.dto.AuthDTO;
@@ -22,7 +23,7 @@ import java.util.List;
 import java.util.Map;
 
 @Tag(name = "Usuários", description = "Endpoints de autenticação e gestão de usuários")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = IdempotencyFilter.REPLAYED_HEADER)
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/users")
@@ -31,10 +32,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    @Operation(summary = "Registrar novo usuário", description = "Cria um novo usuário com userCode e password")
+    @Operation(summary = "Registrar novo usuário", description = "Cria um novo usuário com userCode e password. " +
+            "Com o header Idempotency-Key, a retentativa recebe a resposta original")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Usuário criado com sucesso"),
-            @ApiResponse(responseCode = "400", description = "Requisição inválida")
+            @ApiResponse(responseCode = "400", description = "Requisição inválida"),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key em processamento")
     })
     @PostMapping
     public ResponseEntity<UserDTO> registerUser(@Valid @RequestBody RegisterDTO dto) {
@@ -77,7 +80,7 @@ public class UserController {
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado")
     })
     @GetMapping("{id}")
-    public ResponseEntity<User> getUser(
+    public ResponseEntity<UserDTO> getUser(
             @Parameter(description = "ID do usuário", example = "1")
             @PathVariable Long id) {
         return userService.getUserById(id)
@@ -0,0 +1,121 @@
+package com.packhub.auth.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"userCode\":\"maria\",\"password\":\"123456\"}";
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(List.of("/users"), DataSize.ofMegabytes(1),
+            Duration.ofHours(1), Duration.ofMinutes(1), new ObjectMapper());
+    private final AtomicInteger calls = new AtomicInteger();
+
+    // Simula o cadastro: só a primeira execução cria o usuário, as seguintes esbarram no userCode repetido.
+    private final FilterChain register = (request, response) -> {
+        boolean created = calls.incrementAndGet() == 1;
+        ((HttpServletResponse) response).setStatus(created ? 201 : 400);
+        response.setContentType("application/json");
+        response.getWriter().write(created ? "{\"userCode\":\"maria\"}" : "{\"message\":\"Usuário já existe\"}");
+    };
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Retentativa do cadastro deve receber o 201 original")
+    void shouldReplayRegistration() throws Exception {
+        MockHttpServletResponse first = perform("/users", "chave-1", register);
+        MockHttpServletResponse retry = perform("/users", "chave-1", register);
+
+        assertEquals(1, calls.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Repetição enquanto o cadastro ainda roda deve receber 409")
+    void shouldRejectWhileInFlight() throws Exception {
+        MockHttpServletResponse[] concurrent = new MockHttpServletResponse[1];
+        FilterChain slow = (request, response) -> {
+            concurrent[0] = perform("/users", "chave-1", register);
+            register.doFilter(request, response);
+        };
+
+        assertEquals(201, perform("/users", "chave-1", slow).getStatus());
+        assertEquals(409, concurrent[0].getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Mesma chave com outra senha, do mesmo tamanho, deve receber 422")
+    void shouldRejectKeyReusedWithDifferentBody() throws Exception {
+        perform("/users", "chave-1", register);
+        MockHttpServletResponse other = perform("/users", "chave-1", register,
+                "{\"userCode\":\"maria\",\"password\":\"654321\"}", "127.0.0.1");
+
+        assertEquals(422, other.getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Cadastros anônimos de clientes diferentes não devem compartilhar a chave")
+    void shouldScopeAnonymousKeysByClient() throws Exception {
+        // Como o AnonymousAuthenticationFilter do Spring Security deixa no contexto.
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("chave",
+                "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        perform("/users", "chave-1", register, BODY, "10.0.0.1");
+        MockHttpServletResponse other = perform("/users", "chave-1", register, BODY, "10.0.0.2");
+
+        assertNull(other.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Rotas fora da lista, como o login, não devem ser afetadas")
+    void shouldIgnoreOtherPaths() throws Exception {
+        perform("/users/auth", "chave-1", register);
+        perform("/users/auth", "chave-1", register);
+
+        assertEquals(2, calls.get());
+    }
+
+    private MockHttpServletResponse perform(String path, String key, FilterChain chain)
+            throws ServletException, IOException {
+        return perform(path, key, chain, BODY, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse perform(String path, String key, FilterChain chain, String body,
+                                            String clientAddress) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(clientAddress);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,78 @@
+package com.packhub.auth.domain.repositories;
+
+import com.packhub.auth.domain.entities.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cada chamada ao repositório roda na própria transação, como em produção; as estatísticas do Hibernate
+ * mostram se a leitura foi ao banco.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryCacheTest {
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("findById aquecido deve ser atendido pelo cache sem SQL")
+    void cachedFindByIdShouldIssueNoSql() {
+        Long id = repository.save(User.builder().userCode(1001).password("hash").build()).getId();
+        repository.findById(id);
+
+        statistics.clear();
+        assertTrue(repository.findById(id).isPresent());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    @DisplayName("findByUserCode aquecido deve resolver o natural id e a entidade pelo cache sem SQL")
+    void cachedFindByUserCodeShouldIssueNoSql() {
+        repository.save(User.builder().userCode(2002).password("hash").build());
+        repository.findByUserCode(2002);
+
+        statistics.clear();
+        assertEquals(2002, repository.findByUserCode(2002).orElseThrow().getUserCode());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getNaturalIdCacheHitCount() > 0);
+    }
+
+    @Test
+    @DisplayName("Alterar o userCode deve refletir na busca pelo código novo e não achar o antigo")
+    void updatedUserCodeShouldNotBeServedStale() {
+        User user = repository.save(User.builder().userCode(3003).password("hash").build());
+        repository.findByUserCode(3003);
+
+        user.setUserCode(3004);
+        repository.save(user);
+
+        assertTrue(repository.findByUserCode(3003).isEmpty());
+        assertEquals(user.getId(), repository.findByUserCode(3004).orElseThrow().getId());
+    }
+}
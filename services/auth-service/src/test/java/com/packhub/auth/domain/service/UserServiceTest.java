@@ -11,11 +11,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +35,9 @@ public class UserServiceTest {
     @Mock
     private JwtConfig jwtConfig;
 
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+
     @InjectMocks
     private UserService userService;
 
@@ -113,7 +118,7 @@ public class UserServiceTest {
         User user = User.builder().id(1L).userCode(123).password("senha").build();
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
-        Optional<User> result = userService.getUserById(1L);
+        Optional<UserDTO> result = userService.getUserById(1L);
 
         assertTrue(result.isPresent());
         assertEquals(123, result.get().getUserCode());
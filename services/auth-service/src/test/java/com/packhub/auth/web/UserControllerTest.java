@@ -120,9 +120,7 @@ public class UserControllerTest {
     @Test
     @DisplayName("Deve retornar usuário pelo ID com sucesso")
     void shouldReturnUserById() throws Exception {
-        User user = User.builder().id(1L).userCode(123).password("senha").build();
-
-        Mockito.when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+        Mockito.when(userService.getUserById(1L)).thenReturn(Optional.of(new UserDTO(1L, 123)));
 
         mockMvc.perform(get("/users/1"))
                 .andExpect(status().isOk())
@@ -0,0 +1,76 @@
+package com.packhub.product.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Value("${product.image.upload.threads:4}")
+    private int uploadThreads;
+
+    @Value("${product.image.upload.queue-capacity:100}")
+    private int uploadQueueCapacity;
+
+    // Fila limitada, sem rodar o upload (com as tentativas e esperas) na thread da requisição: o ImageUploadWorker
+    // reserva lugar antes de gravar o produto e, com a fila cheia, a requisição recebe 503 com Retry-After.
+    @Bean
+    public ThreadPoolTaskExecutor imageUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(uploadThreads);
+        executor.setMaxPoolSize(uploadThreads);
+        executor.setQueueCapacity(uploadQueueCapacity);
+        executor.setThreadNamePrefix("image-upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Uploads de galeria para storages bloqueantes: cada envio ocupa uma thread enquanto espera o CDN. Fila
+    // cheia faz o upload rodar na thread da requisição (backpressure); o bulkhead do storage limita o total.
+    @Bean
+    public ThreadPoolTaskExecutor imageStoreExecutor(
+            @Value("${product.image.store.threads:8}") int threads,
+            @Value("${product.image.store.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-store-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    // Decodifica e redimensiona imagens: uma thread por CPU, já que o trabalho é só de CPU. Fila cheia recusa a
+    // tarefa (AbortPolicy) e a requisição recebe 503, em vez de acumular imagens decodificadas no heap.
+    @Bean
+    public ThreadPoolTaskExecutor imageProcessingExecutor(
+            @Value("${product.image.processing.threads:0}") int threads,
+            @Value("${product.image.processing.queue-capacity:32}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-processing-");
+        return executor;
+    }
+
+    // Escreve os eventos nos assinantes de /products/stream. Cada assinante tem no máximo uma tarefa na
+    // fila, então a capacidade igual ao limite de assinantes nunca é excedida.
+    @Bean
+    public ThreadPoolTaskExecutor productStreamExecutor(
+            @Value("${product.stream.threads:4}") int threads,
+            @Value("${product.stream.max-subscribers:5000}") int maxSubscribers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(maxSubscribers);
+        executor.setThreadNamePrefix("product-stream-");
+        return executor;
+    }
+}
@@ -2,13 +2,16 @@ package com.packhub.product.config;
 
 import com.cloudinary.Cloudinary;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@ConditionalOnProperty(name = "product.image.storage", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryConfig {
 
     @Value("${cloudinary.cloud_name}")
@@ -20,12 +23,21 @@ public class CloudinaryConfig {
     @Value("${cloudinary.api_secret}")
     private String apiSecret;
 
+    @Value("${cloudinary.connect-timeout:PT5S}")
+    private Duration connectTimeout;
+
+    @Value("${cloudinary.read-timeout:PT30S}")
+    private Duration readTimeout;
+
     @Bean
     public Cloudinary cloudinary() {
         Map<String, String> config = new HashMap<>();
         config.put("cloud_name", cloudName);
         config.put("api_key", apiKey);
         config.put("api_secret", apiSecret);
+        // Sem prazo o SDK espera o CDN indefinidamente; os dois valores são em segundos.
+        config.put("connection_timeout", String.valueOf(Math.max(1, connectTimeout.toSeconds())));
+        config.put("timeout", String.valueOf(Math.max(1, readTimeout.toSeconds())));
 
         return new Cloudinary(config);
     }
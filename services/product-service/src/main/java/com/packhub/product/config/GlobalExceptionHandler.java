@@ -2,18 +2,26 @@ package com.packhub.product.config;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.Map;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    @Value("${product.unavailable.retry-after:PT5S}")
+    private Duration unavailableRetryAfter;
+
     @ExceptionHandler(JsonProcessingException.class)
     public ResponseEntity<?> handleJsonError(JsonProcessingException ex) {
         return ResponseEntity
@@ -35,10 +43,28 @@ public class GlobalExceptionHandler {
                 .body(Map.of("message", "Acesso negado"));
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLock(OptimisticLockingFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "O produto foi alterado por outra requisição"));
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<?> handleMaxUploadSize(MaxUploadSizeExceededException ex) {
+        return ResponseEntity
+                .status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("message", "Arquivo maior que o permitido"));
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<?> handleResponseStatus(ResponseStatusException ex) {
-        return ResponseEntity
-                .status(ex.getStatusCode())
+        // Os 503 daqui são sobrecarga passageira (filas cheias, circuito aberto): o cliente sabe quando tentar de novo.
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(ex.getStatusCode());
+        if (ex.getStatusCode().value() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(unavailableRetryAfter.toSeconds()));
+        }
+        return response
                 .body(Map.of("message", ex.getReason()));
     }
 }
@@ -0,0 +1,64 @@
+package com.packhub.product.config;
+
+import com.packhub.product.domain.service.CircuitBreaker;
+import com.packhub.product.domain.service.ImageStorage;
+import com.packhub.product.domain.service.ResilientImageStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Envolve o {@link ImageStorage} ativo (Cloudinary, Cloudinary via HTTP ou disco) com bulkhead e circuit breaker; é esta a instância
+ * que o {@link com.packhub.product.domain.service.ImageService} recebe.
+ */
+@Configuration
+public class ImageStorageConfig {
+
+    @Value("${product.image.bulkhead.max-concurrent:8}")
+    private int maxConcurrentUploads;
+
+    @Value("${product.image.bulkhead.max-wait:PT0.5S}")
+    private Duration bulkheadMaxWait;
+
+    @Value("${product.image.bulkhead.max-concurrent-async:256}")
+    private int maxConcurrentAsyncUploads;
+
+    @Value("${product.image.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${product.image.breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${product.image.breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${product.image.breaker.slow-call-rate-threshold:80}")
+    private int slowCallRateThreshold;
+
+    @Value("${product.image.breaker.slow-call-duration:PT10S}")
+    private Duration slowCallDuration;
+
+    @Value("${product.image.breaker.open-duration:PT30S}")
+    private Duration openDuration;
+
+    @Value("${product.image.breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    // O parâmetro recebe a implementação concreta: o próprio bean fica fora dos candidatos.
+    @Bean
+    @Primary
+    public ResilientImageStorage resilientImageStorage(ImageStorage imageStorage,
+                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        CircuitBreaker breaker = new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold,
+                slowCallRateThreshold, slowCallDuration, openDuration, halfOpenCalls);
+        ResilientImageStorage storage = new ResilientImageStorage(imageStorage, maxConcurrentUploads,
+                bulkheadMaxWait, maxConcurrentAsyncUploads, breaker);
+        meterRegistry.ifAvailable(storage::registerMetrics);
+        return storage;
+    }
+}
@@ -0,0 +1,34 @@
+package com.packhub.product.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Leituras da thread atual que não podem ir para a réplica, lidas pelo {@link ReplicaRoutingDataSource} quando a
+ * conexão é aberta: quem precisa ver as próprias escritas, ou escritas que a réplica ainda não recebeu.
+ * Deve envolver a transação inteira, para valer desde a primeira consulta.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static boolean isForced() {
+        return Boolean.TRUE.equals(FORCED.get());
+    }
+
+    public static <T> T call(Supplier<T> work) {
+        Boolean previous = FORCED.get();
+        FORCED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCED.remove();
+            } else {
+                FORCED.set(previous);
+            }
+        }
+    }
+}
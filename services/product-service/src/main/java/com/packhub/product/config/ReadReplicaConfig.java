@@ -0,0 +1,77 @@
+package com.packhub.product.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Com {@code product.datasource.replica.url} definida, transações {@code readOnly = true} leem da réplica e
+ * o restante vai para o primário ({@code spring.datasource}).
+ * <p>
+ * O {@link LazyConnectionDataSourceProxy} só pega a conexão física no primeiro comando, quando o Hibernate já
+ * marcou a conexão como somente leitura; conexões somente leitura vão para o {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnExpression("!'${product.datasource.replica.url:}'.isBlank() && !${product.sharding.enabled:false}")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("product.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${product.datasource.replica.url}") String url,
+                                              @Value("${product.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${product.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${product.datasource.replica.lag-query}") String lagQuery,
+                                               @Value("${product.datasource.replica.max-lag:PT10S}") Duration maxLag,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ReplicaLagMonitor(replica, lagQuery, maxLag, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return routing(primary, replica, lagMonitor, meterRegistry.getIfAvailable());
+    }
+
+    static DataSource routing(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                              MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource readOnly = new ReplicaRoutingDataSource(primary, replica, lagMonitor, meterRegistry);
+        readOnly.afterPropertiesSet();
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(readOnly);
+        return proxy;
+    }
+}
@@ -0,0 +1,68 @@
+package com.packhub.product.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Mede periodicamente o atraso de replicação da réplica de leitura. Enquanto o atraso passar do limite, ou a
+ * consulta falhar, a réplica é considerada indisponível e as leituras vão para o primário.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    // Só passa a valer depois da primeira verificação.
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        if (meterRegistry != null) {
+            Gauge.builder("product.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("product.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.datasource.replica.lag-check-interval:PT5S}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            usable = lagSeconds * 1000 <= maxLag.toMillis();
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Falha ao consultar a réplica de leitura; leituras seguem para o primário", e);
+            }
+        }
+        if (wasUsable && !usable && !Double.isNaN(lagSeconds)) {
+            log.warn("Réplica de leitura com {} s de atraso (limite {}); leituras seguem para o primário", lagSeconds, maxLag);
+        } else if (!wasUsable && usable) {
+            log.info("Réplica de leitura disponível ({} s de atraso)", lagSeconds);
+        }
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
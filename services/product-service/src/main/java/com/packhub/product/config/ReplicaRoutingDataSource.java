@@ -0,0 +1,46 @@
+package com.packhub.product.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Destino das conexões somente leitura: a réplica, ou o primário enquanto o {@link ReplicaLagMonitor}
+ * indicar que ela está atrasada ou fora do ar e dentro de {@link PrimaryReads}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaReads;
+    private final Counter fallbackReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        if (meterRegistry != null) {
+            replicaReads = Counter.builder("product.datasource.reads").tag("pool", REPLICA).register(meterRegistry);
+            fallbackReads = Counter.builder("product.datasource.reads").tag("pool", PRIMARY).register(meterRegistry);
+        } else {
+            replicaReads = null;
+            fallbackReads = null;
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean useReplica = !PrimaryReads.isForced() && lagMonitor.isUsable();
+        Counter counter = useReplica ? replicaReads : fallbackReads;
+        if (counter != null) {
+            counter.increment();
+        }
+        return useReplica ? REPLICA : PRIMARY;
+    }
+}
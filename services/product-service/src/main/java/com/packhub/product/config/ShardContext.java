@@ -0,0 +1,33 @@
+package com.packhub.product.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard escolhido para a thread atual, lido pelo {@link ShardRoutingDataSource} quando a conexão é aberta.
+ * Sem shard definido a conexão vai para o shard padrão.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callOn(String shard, Supplier<T> work) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
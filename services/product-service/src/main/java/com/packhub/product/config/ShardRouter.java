@@ -0,0 +1,80 @@
+package com.packhub.product.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Anel de hash consistente que decide o shard de cada userCode.
+ * <p>
+ * Cada shard ocupa {@code virtualNodes} pontos do anel e o usuário pertence ao primeiro ponto a partir do hash
+ * do seu código. Ao incluir um shard só mudam de dono os usuários que caem nos pontos dele, e todos vão para
+ * o shard novo; os demais continuam onde estavam.
+ */
+public class ShardRouter {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final List<String> shards;
+    // Pontos do anel em ordem crescente e o shard dono de cada um, em arrays paralelos.
+    private final long[] points;
+    private final String[] owners;
+
+    public ShardRouter(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um shard");
+        }
+        if (shards.stream().distinct().count() != shards.size()) {
+            throw new IllegalArgumentException("Nomes de shard repetidos: " + shards);
+        }
+        this.shards = List.copyOf(shards);
+
+        int count = shards.size() * virtualNodes;
+        long[][] ring = new long[count][];
+        int n = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring[n++] = new long[]{hash(shards.get(shard) + "#" + node), shard};
+            }
+        }
+        // Empate de hash entre shards é resolvido pelo nome, para o anel não depender da ordem da configuração.
+        Arrays.sort(ring, (a, b) -> a[0] != b[0]
+                ? Long.compare(a[0], b[0])
+                : shards.get((int) a[1]).compareTo(shards.get((int) b[1])));
+
+        points = new long[count];
+        owners = new String[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = ring[i][0];
+            owners[i] = shards.get((int) ring[i][1]);
+        }
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public String shardFor(String userCode) {
+        int at = Arrays.binarySearch(points, hash(userCode));
+        if (at < 0) {
+            at = -at - 1;
+        }
+        return owners[at == points.length ? 0 : at];
+    }
+
+    // Primeiros 8 bytes do MD5: bem distribuído e igual em qualquer JVM, ao contrário de String.hashCode.
+    static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (digest[i] & 0xFF);
+            }
+            return value;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
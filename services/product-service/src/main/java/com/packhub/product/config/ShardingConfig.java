@@ -0,0 +1,112 @@
+package com.packhub.product.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Com {@code product.sharding.enabled=true} a tabela PRODUCTS fica dividida por userCode entre os bancos de
+ * {@code product.sharding.shards}; {@code spring.datasource} deixa de ser usado.
+ * <p>
+ * O shard da conexão é decidido pelo {@link ShardContext} no primeiro comando (o {@link LazyConnectionDataSourceProxy}
+ * adia a conexão física), então basta definir o shard antes da primeira consulta da transação.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "product.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        return new ShardRouter(properties.names(), properties.getVirtualNodes());
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties,
+                                                         DataSourceProperties defaults) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername() != null ? shard.getUsername() : defaults.getUsername());
+            dataSource.setPassword(shard.getPassword() != null ? shard.getPassword() : defaults.getPassword());
+            dataSource.setPoolName(shard.getName());
+            shards.put(shard.getName(), dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    // Mesmas migrações em todos os shards; depois cada shard passa a gerar ids na própria faixa.
+    @Bean
+    public FlywayMigrationStrategy shardedMigration(ShardingProperties properties,
+                                                    ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            for (int i = 0; i < properties.getShards().size(); i++) {
+                String name = properties.getShards().get(i).getName();
+                DataSource shard = shardRoutingDataSource.getShards().get(name);
+                Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate();
+                reserveIdRange(name, shard, properties.idStart(i));
+            }
+        };
+    }
+
+    // Consultas espalhadas por todos os shards. Com a fila cheia a consulta roda na thread da requisição.
+    @Bean
+    public ThreadPoolTaskExecutor productShardExecutor(ShardingProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getThreads() * 16);
+        executor.setThreadNamePrefix("product-shard-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * Leva a product_seq e a product_image_seq do shard para o início da faixa dele enquanto o shard ainda não tiver
+     * gerado nenhum id ali, mantendo os ids únicos entre shards. Linhas trazidas pelo rebalanceamento mantêm o id
+     * original.
+     */
+    static void reserveIdRange(String name, DataSource shard, long idStart) {
+        if (idStart <= 0) {
+            return;
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(shard);
+        Long inRange = jdbc.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM products WHERE id >= ?) + " +
+                        "(SELECT COUNT(*) FROM product_tombstones WHERE product_id >= ?)",
+                Long.class, idStart, idStart);
+        if (inRange != null && inRange == 0) {
+            // O Hibernate (allocationSize 50) usa o bloco que termina no valor lido: o primeiro id é idStart + 1.
+            jdbc.execute("ALTER SEQUENCE product_seq RESTART WITH " + (idStart + 50));
+            log.info("Shard {} gerando ids a partir de {}", name, idStart + 1);
+        }
+        Long imagesInRange = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM product_images WHERE id >= ?", Long.class, idStart);
+        if (imagesInRange != null && imagesInRange == 0) {
+            jdbc.execute("ALTER SEQUENCE product_image_seq RESTART WITH " + (idStart + 50));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.packhub.product.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties("product.sharding")
+public class ShardingProperties {
+
+    // Distância entre as faixas de ids dos shards: o shard na posição i gera ids a partir de i * ID_RANGE.
+    public static final long ID_RANGE = 1_000_000_000_000L;
+
+    private boolean enabled;
+    private int virtualNodes = ShardRouter.DEFAULT_VIRTUAL_NODES;
+    private int threads = 8;
+    private List<Shard> shards = new ArrayList<>();
+
+    public List<String> names() {
+        return shards.stream().map(Shard::getName).toList();
+    }
+
+    public long idStart(int position) {
+        Long idStart = shards.get(position).getIdStart();
+        return idStart != null ? idStart : position * ID_RANGE;
+    }
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private Long idStart;
+    }
+}
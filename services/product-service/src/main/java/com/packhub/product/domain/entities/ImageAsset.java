@@ -0,0 +1,42 @@
+package com.packhub.product.domain.entities;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Índice hash → URLs (imagem e miniatura) das imagens já enviadas ao storage; permite reaproveitar uploads de conteúdo idêntico.
+ */
+@Setter
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "IMAGE_ASSETS")
+public class ImageAsset {
+
+    // SHA-256 do conteúdo em hexadecimal.
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private String url;
+
+    private String thumbnailUrl;
+
+    private String contentType;
+
+    private Long size;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,44 @@
+package com.packhub.product.domain.entities;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Imagem (e a miniatura dela) que deixou de ser usada por um produto e aguarda o
+ * {@link com.packhub.product.domain.service.ImageGarbageCollector}. Gravada no shard do produto, na mesma transação
+ * que trocou a galeria ou excluiu o produto.
+ */
+@Setter
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "IMAGE_DELETIONS")
+public class ImageDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_deletion_seq")
+    @SequenceGenerator(name = "image_deletion_seq", sequenceName = "image_deletion_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String url;
+
+    private String thumbnailUrl;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Quando a URL saiu do índice de deduplicação; nulo enquanto isso não aconteceu.
+    private LocalDateTime unindexedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private int attempts;
+}
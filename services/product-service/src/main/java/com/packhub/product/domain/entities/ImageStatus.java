@@ -0,0 +1,7 @@
+package com.packhub.product.domain.entities;
+
+public enum ImageStatus {
+    PENDING,
+    READY,
+    FAILED
+}
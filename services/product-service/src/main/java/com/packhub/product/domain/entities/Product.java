@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -18,9 +19,11 @@ import java.time.LocalDateTime;
 @Table(name = "PRODUCTS")
 public class Product {
 
+    // Sequência com alocação em blocos: o id sai da memória e o Hibernate consegue agrupar os INSERTs em lote.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
+    private Long id;
 
     @NotBlank
     private String name;
@@ -28,9 +31,15 @@ public class Product {
     @NotNull
     private Double price;
 
-    @NotNull
+    // Nulo enquanto o upload assíncrono da primeira imagem não termina.
     private String imageUrl;
 
+    // Miniatura gerada no upload; nula em produtos anteriores a ela.
+    private String thumbnailUrl;
+
+    @Enumerated(EnumType.STRING)
+    private ImageStatus imageStatus;
+
     @Column(nullable = false)
     private String userCode;
 
@@ -40,6 +49,12 @@ public class Product {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Incrementada a cada escrita; exposta como ETag para o If-Match do PUT.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     public void prePersist() {
         this.createdAt = LocalDateTime.now();
@@ -0,0 +1,36 @@
+package com.packhub.product.domain.entities;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+/**
+ * Imagem da galeria de um produto. Fica no mesmo shard do produto e é lida em lote por página
+ * (ver {@link com.packhub.product.domain.service.ProductGallery}), nunca produto a produto.
+ */
+@Setter
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "PRODUCT_IMAGES")
+public class ProductImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_image_seq")
+    @SequenceGenerator(name = "product_image_seq", sequenceName = "product_image_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    // Ordem de exibição, a partir de 0.
+    @Column(nullable = false)
+    private Integer position;
+
+    @Column(nullable = false)
+    private String url;
+
+    private String thumbnailUrl;
+}
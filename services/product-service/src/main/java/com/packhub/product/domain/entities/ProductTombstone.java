@@ -0,0 +1,30 @@
+package com.packhub.product.domain.entities;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de um produto excluído, para que a sincronização incremental (GET /products/changes) avise
+ * os clientes. Mantido só pelo período de retenção; ids de produto nunca são reaproveitados.
+ */
+@Setter
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "PRODUCT_TOMBSTONES")
+public class ProductTombstone {
+
+    @Id
+    private Long productId;
+
+    @Column(nullable = false)
+    private String userCode;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime deletedAt;
+}
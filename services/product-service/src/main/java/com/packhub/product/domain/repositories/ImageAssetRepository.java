@@ -0,0 +1,26 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.domain.entities.ImageAsset;
+import com.packhub.product.dto.UploadedImageDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface ImageAssetRepository extends JpaRepository<ImageAsset, String> {
+
+    // Assets anteriores às miniaturas usam a própria imagem como miniatura.
+    @Query("SELECT new com.packhub.product.dto.UploadedImageDTO(a.url, COALESCE(a.thumbnailUrl, a.url)) " +
+            "FROM ImageAsset a WHERE a.hash = :hash")
+    Optional<UploadedImageDTO> findByHash(@Param("hash") String hash);
+
+    // Tira as URLs do índice de deduplicação antes que elas sejam apagadas do storage.
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageAsset a WHERE a.url IN :urls")
+    int deleteByUrlIn(@Param("urls") Collection<String> urls);
+}
@@ -0,0 +1,24 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.domain.entities.ImageDeletion;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ImageDeletionRepository extends JpaRepository<ImageDeletion, Long> {
+
+    // Lote vencido, apoiado no índice idx_image_deletions_next_attempt_at. As linhas ficam travadas até o fim da
+    // transação e outras instâncias pulam as travadas (SKIP LOCKED), então cada lote é processado por uma só.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM ImageDeletion d WHERE d.nextAttemptAt <= :now ORDER BY d.nextAttemptAt ASC, d.id ASC")
+    List<ImageDeletion> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,35 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.domain.entities.ProductImage;
+import com.packhub.product.dto.ProductImageDTO;
+import com.packhub.product.dto.UploadedImageDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
+
+    // Galerias de uma página inteira em uma consulta, apoiada no índice idx_product_images_product_id_position.
+    @Query("SELECT new com.packhub.product.dto.ProductImageDTO(" +
+            "i.productId, i.position, i.url, COALESCE(i.thumbnailUrl, i.url)) " +
+            "FROM ProductImage i WHERE i.productId IN :productIds ORDER BY i.productId ASC, i.position ASC")
+    List<ProductImageDTO> findDtosByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT new com.packhub.product.dto.UploadedImageDTO(i.url, COALESCE(i.thumbnailUrl, i.url)) " +
+            "FROM ProductImage i WHERE i.productId = :productId ORDER BY i.position ASC")
+    List<UploadedImageDTO> findUploadsByProductId(@Param("productId") Long productId);
+
+    // Quais dessas URLs ainda estão em alguma galeria, apoiada no índice idx_product_images_url.
+    @Query("SELECT DISTINCT i.url FROM ProductImage i WHERE i.url IN :urls")
+    List<String> findUrlsIn(@Param("urls") Collection<String> urls);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProductImage i WHERE i.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,30 @@
+package com.packhub.product.domain.repositories;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros, ordenação e posição de continuação de uma página de produtos. Campos nulos não filtram.
+ */
+@Getter
+@Builder
+public class ProductQuery {
+
+    private final String userCode;
+
+    private final Double minPrice;
+
+    private final Double maxPrice;
+
+    @Builder.Default
+    private final ProductSort sort = ProductSort.CREATED_AT;
+
+    // Último item da página anterior: afterCreatedAt na ordenação por data, afterPrice na ordenação por preço.
+    private final Long afterId;
+
+    private final LocalDateTime afterCreatedAt;
+
+    private final Double afterPrice;
+}
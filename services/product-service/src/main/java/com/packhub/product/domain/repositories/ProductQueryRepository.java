@@ -0,0 +1,13 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.dto.ProductDTO;
+
+import java.util.List;
+
+/**
+ * Consultas montadas conforme os filtros informados, que não cabem em um {@code @Query} fixo.
+ */
+public interface ProductQueryRepository {
+
+    List<ProductDTO> findPage(ProductQuery query, int limit);
+}
@@ -0,0 +1,59 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.dto.ProductDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Cada combinação de filtros casa com um dos índices de V2__product_indexes.sql.
+class ProductQueryRepositoryImpl implements ProductQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductDTO> findPage(ProductQuery query, int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+
+        if (query.getUserCode() != null) {
+            conditions.add("p.userCode = :userCode");
+            params.put("userCode", query.getUserCode());
+        }
+        if (query.getMinPrice() != null) {
+            conditions.add("p.price >= :minPrice");
+            params.put("minPrice", query.getMinPrice());
+        }
+        if (query.getMaxPrice() != null) {
+            conditions.add("p.price <= :maxPrice");
+            params.put("maxPrice", query.getMaxPrice());
+        }
+
+        boolean byPrice = query.getSort() == ProductSort.PRICE;
+        if (query.getAfterId() != null) {
+            if (byPrice) {
+                conditions.add("(p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId))");
+                params.put("afterPrice", query.getAfterPrice());
+            } else {
+                conditions.add("(p.createdAt > :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id > :afterId))");
+                params.put("afterCreatedAt", query.getAfterCreatedAt());
+            }
+            params.put("afterId", query.getAfterId());
+        }
+
+        StringBuilder jpql = new StringBuilder(ProductRepository.SELECT_DTO);
+        if (!conditions.isEmpty()) {
+            jpql.append("WHERE ").append(String.join(" AND ", conditions)).append(' ');
+        }
+        jpql.append(byPrice ? "ORDER BY p.price ASC, p.id ASC" : "ORDER BY p.createdAt ASC, p.id ASC");
+
+        TypedQuery<ProductDTO> typed = entityManager.createQuery(jpql.toString(), ProductDTO.class);
+        params.forEach(typed::setParameter);
+        return typed.setMaxResults(limit).getResultList();
+    }
+}
@@ -1,14 +1,163 @@
 package com.packhub.product.domain.repositories;
 
+import com.packhub.product.domain.entities.ImageStatus;
 import com.packhub.product.domain.entities.Product;
+import com.packhub.product.dto.ImageStatusDTO;
+import com.packhub.product.dto.ProductDTO;
+import com.packhub.product.dto.ProductListVersionDTO;
+import com.packhub.product.dto.ProductOwnershipDTO;
+import com.packhub.product.dto.ProductPriceEntryDTO;
+import com.packhub.product.dto.ProductSearchEntryDTO;
+import com.packhub.product.dto.UploadedImageDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findAllByUserCode(String userCode);
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductQueryRepository {
 
-}
+    // Projeção por construtor: o Hibernate não cria entidades gerenciadas nem snapshots de dirty checking.
+    String SELECT_DTO = "SELECT new com.packhub.product.dto.ProductDTO(" +
+            "p.id, p.name, p.price, p.imageUrl, COALESCE(p.thumbnailUrl, p.imageUrl), p.imageStatus, p.userCode, p.createdAt, p.updatedAt, p.version) " +
+            "FROM Product p ";
+
+    @Query(SELECT_DTO + "WHERE p.id = :id")
+    Optional<ProductDTO> findDtoById(@Param("id") Long id);
+
+    @Query(SELECT_DTO + "WHERE p.id IN :ids")
+    List<ProductDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "ORDER BY p.createdAt ASC, p.id ASC")
+    List<ProductDTO> findFirstPage(Pageable pageable);
+
+    @Query(SELECT_DTO +
+            "WHERE p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id) " +
+            "ORDER BY p.createdAt ASC, p.id ASC")
+    List<ProductDTO> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") long id,
+                                   Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE p.userCode = :userCode ORDER BY p.createdAt ASC, p.id ASC")
+    List<ProductDTO> findFirstPageByUserCode(@Param("userCode") String userCode, Pageable pageable);
+
+    @Query(SELECT_DTO +
+            "WHERE p.userCode = :userCode " +
+            "AND (p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id)) " +
+            "ORDER BY p.createdAt ASC, p.id ASC")
+    List<ProductDTO> findPageByUserCodeAfter(@Param("userCode") String userCode,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") long id,
+                                             Pageable pageable);
+
+    // Sincronização incremental, apoiada no índice idx_products_updated_at_id.
+    @Query(SELECT_DTO + "WHERE p.updatedAt <= :until ORDER BY p.updatedAt ASC, p.id ASC")
+    List<ProductDTO> findChangedFirstPage(@Param("until") LocalDateTime until, Pageable pageable);
+
+    @Query(SELECT_DTO +
+            "WHERE (p.updatedAt > :updatedAt OR (p.updatedAt = :updatedAt AND p.id > :id)) " +
+            "AND p.updatedAt <= :until " +
+            "ORDER BY p.updatedAt ASC, p.id ASC")
+    List<ProductDTO> findChangedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+                                      @Param("id") long id,
+                                      @Param("until") LocalDateTime until,
+                                      Pageable pageable);
+
+    // Precisa ser consumido dentro de uma transação; o fetch size faz o driver trazer as linhas em lotes.
+    // CacheMode.IGNORE: a varredura completa não lê nem popula um eventual cache de segundo nível.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id ASC")
+    Stream<Product> streamAll();
 
+    // Carga do índice de busca: só as colunas indexadas, em lotes.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.packhub.product.dto.ProductSearchEntryDTO(p.id, p.name, p.createdAt) FROM Product p")
+    Stream<ProductSearchEntryDTO> streamSearchEntries();
+
+    // Carga do índice de preços, já na ordem (price, id) do índice idx_products_price_id.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.packhub.product.dto.ProductPriceEntryDTO(p.id, p.price) FROM Product p ORDER BY p.price ASC, p.id ASC")
+    Stream<ProductPriceEntryDTO> streamPriceEntries();
+
+    // Resolvida só pelo índice idx_products_user_code_updated_at, sem ler as linhas.
+    @Query("SELECT new com.packhub.product.dto.ProductListVersionDTO(MAX(p.updatedAt), COUNT(p)) " +
+            "FROM Product p WHERE p.userCode = :userCode")
+    ProductListVersionDTO findListVersion(@Param("userCode") String userCode);
+
+    @Query("SELECT new com.packhub.product.dto.ImageStatusDTO(p.id, p.imageStatus, p.imageUrl) " +
+            "FROM Product p WHERE p.id = :id")
+    Optional<ImageStatusDTO> findImageStatus(@Param("id") Long id);
+
+    // Imagem principal de produtos anteriores à galeria, que não têm linhas em PRODUCT_IMAGES.
+    @Query("SELECT new com.packhub.product.dto.UploadedImageDTO(p.imageUrl, COALESCE(p.thumbnailUrl, p.imageUrl)) " +
+            "FROM Product p WHERE p.id = :id AND p.imageUrl IS NOT NULL")
+    Optional<UploadedImageDTO> findCoverById(@Param("id") Long id);
+
+    // Quais dessas URLs ainda são imagem principal de algum produto, apoiada no índice idx_products_image_url.
+    @Query("SELECT DISTINCT p.imageUrl FROM Product p WHERE p.imageUrl IN :urls")
+    List<String> findImageUrlsIn(@Param("urls") Collection<String> urls);
+
+    @Query("SELECT new com.packhub.product.dto.ProductOwnershipDTO(p.userCode, p.version) " +
+            "FROM Product p WHERE p.id = :id")
+    Optional<ProductOwnershipDTO> findOwnership(@Param("id") Long id);
+
+    /**
+     * Atualiza só se o produto pertencer a {@code userCode} e, quando {@code version} for informada, ainda estiver nela.
+     * Campos nulos mantêm o valor atual. Retorna 0 quando a condição não é satisfeita.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.name = COALESCE(:name, p.name), p.price = COALESCE(:price, p.price), " +
+            "p.imageUrl = COALESCE(:imageUrl, p.imageUrl), p.thumbnailUrl = COALESCE(:thumbnailUrl, p.thumbnailUrl), " +
+            "p.imageStatus = COALESCE(:imageStatus, p.imageStatus), " +
+            "p.updatedAt = :updatedAt, p.version = p.version + 1 " +
+            "WHERE p.id = :id AND p.userCode = :userCode AND (:version IS NULL OR p.version = :version)")
+    int updateOwned(@Param("id") Long id,
+                    @Param("userCode") String userCode,
+                    @Param("name") String name,
+                    @Param("price") Double price,
+                    @Param("imageUrl") String imageUrl,
+                    @Param("thumbnailUrl") String thumbnailUrl,
+                    @Param("imageStatus") ImageStatus imageStatus,
+                    @Param("version") Long version,
+                    @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id = :id AND p.userCode = :userCode")
+    int deleteOwned(@Param("id") Long id, @Param("userCode") String userCode);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.imageUrl = COALESCE(:imageUrl, p.imageUrl), " +
+            "p.thumbnailUrl = COALESCE(:thumbnailUrl, p.thumbnailUrl), p.imageStatus = :status, " +
+            "p.updatedAt = :updatedAt, p.version = p.version + 1 WHERE p.id = :id")
+    int updateImage(@Param("id") Long id,
+                    @Param("imageUrl") String imageUrl,
+                    @Param("thumbnailUrl") String thumbnailUrl,
+                    @Param("status") ImageStatus status,
+                    @Param("updatedAt") LocalDateTime updatedAt);
+}
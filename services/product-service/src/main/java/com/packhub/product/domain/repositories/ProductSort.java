@@ -0,0 +1,33 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.dto.ProductDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+
+/**
+ * Ordenações aceitas na listagem de produtos; o id sempre desempata.
+ */
+public enum ProductSort {
+    CREATED_AT,
+    PRICE;
+
+    public static ProductSort from(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("createdAt")) {
+            return CREATED_AT;
+        }
+        if (value.equalsIgnoreCase("price")) {
+            return PRICE;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ordenação inválida: use createdAt ou price");
+    }
+
+    // Mesma ordem do ORDER BY das consultas, para juntar as páginas de vários shards.
+    public Comparator<ProductDTO> comparator() {
+        Comparator<ProductDTO> primary = this == PRICE
+                ? Comparator.comparing(ProductDTO::getPrice)
+                : Comparator.comparing(ProductDTO::getCreatedAt);
+        return primary.thenComparing(ProductDTO::getId);
+    }
+}
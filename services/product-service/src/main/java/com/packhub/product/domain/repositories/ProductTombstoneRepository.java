@@ -0,0 +1,33 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.domain.entities.ProductTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    @Query("SELECT t FROM ProductTombstone t " +
+            "WHERE (t.deletedAt > :deletedAt OR (t.deletedAt = :deletedAt AND t.productId > :productId)) " +
+            "AND t.deletedAt <= :until " +
+            "ORDER BY t.deletedAt ASC, t.productId ASC")
+    List<ProductTombstone> findPageAfter(@Param("deletedAt") LocalDateTime deletedAt,
+                                         @Param("productId") long productId,
+                                         @Param("until") LocalDateTime until,
+                                         Pageable pageable);
+
+    // Nula sem exclusões do usuário no período de retenção.
+    @Query("SELECT MAX(t.deletedAt) FROM ProductTombstone t WHERE t.userCode = :userCode")
+    LocalDateTime findLastDeletedAt(@Param("userCode") String userCode);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProductTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
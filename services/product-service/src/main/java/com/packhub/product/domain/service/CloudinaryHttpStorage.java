@@ -0,0 +1,217 @@
+package com.packhub.product.domain.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Upload para o Cloudinary pela API REST com o {@link HttpClient} do JDK, sem o SDK.
+ * <p>
+ * Um único cliente é compartilhado por todos os uploads: as conexões TLS ficam abertas entre as requisições e,
+ * com HTTP/2, vários uploads dividem a mesma conexão. O arquivo é enviado em streaming direto do disco e a
+ * resposta chega de forma assíncrona, então poucas threads atendem muitos uploads em andamento.
+ */
+@Service
+@ConditionalOnProperty(name = "product.image.storage", havingValue = "cloudinary-http")
+public class CloudinaryHttpStorage implements ImageStorage, DisposableBean {
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final URI uploadUri;
+    private final URI resourcesUri;
+    private final String apiKey;
+    private final String apiSecret;
+    private final Duration readTimeout;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    @Autowired
+    public CloudinaryHttpStorage(@Value("${cloudinary.cloud_name}") String cloudName,
+                                 @Value("${cloudinary.api_key}") String apiKey,
+                                 @Value("${cloudinary.api_secret}") String apiSecret,
+                                 @Value("${cloudinary.api-url:https://api.cloudinary.com/v1_1}") String apiUrl,
+                                 @Value("${cloudinary.connect-timeout:PT5S}") Duration connectTimeout,
+                                 @Value("${cloudinary.read-timeout:PT30S}") Duration readTimeout,
+                                 @Value("${cloudinary.http.threads:4}") int threads,
+                                 ObjectMapper objectMapper) {
+        this(URI.create(apiUrl + "/" + cloudName + "/image/upload"), apiKey, apiSecret, connectTimeout, readTimeout,
+                threads, objectMapper, Clock.systemUTC());
+    }
+
+    CloudinaryHttpStorage(URI uploadUri, String apiKey, String apiSecret, Duration connectTimeout,
+                          Duration readTimeout, int threads, ObjectMapper objectMapper, Clock clock) {
+        this.executor = Executors.newFixedThreadPool(threads, daemonThreads());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+        this.uploadUri = uploadUri;
+        // .../<cloud>/image/upload -> .../<cloud>/resources/image/upload
+        this.resourcesUri = uploadUri.resolve("../resources/image/upload");
+        this.apiKey = apiKey;
+        this.apiSecret = apiSecret;
+        this.readTimeout = readTimeout;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    @Override
+    public String store(SpooledImage image) {
+        try {
+            return storeAsync(image).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> storeAsync(SpooledImage image) {
+        HttpRequest request;
+        try {
+            request = uploadRequest(image);
+        } catch (FileNotFoundException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw new IllegalStateException("Falha ao fazer upload da imagem", unwrap(error));
+                    }
+                    return secureUrl(response);
+                });
+    }
+
+    // Admin API: até 100 public ids por chamada, autenticada com a chave e o segredo. Roda só em segundo plano,
+    // então espera a resposta na própria thread.
+    @Override
+    public void deleteAll(List<String> urls) {
+        for (List<String> publicIds : CloudinaryPublicIds.chunks(CloudinaryPublicIds.of(urls))) {
+            String query = publicIds.stream()
+                    .map(id -> "public_ids%5B%5D=" + URLEncoder.encode(id, StandardCharsets.UTF_8))
+                    .collect(Collectors.joining("&"));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(resourcesUri + "?" + query))
+                    .timeout(readTimeout)
+                    .header("Authorization", "Basic " + Base64.getEncoder()
+                            .encodeToString((apiKey + ":" + apiSecret).getBytes(StandardCharsets.UTF_8)))
+                    .DELETE()
+                    .build();
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao apagar imagens", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Exclusão de imagens interrompida", e);
+            }
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Falha ao apagar imagens: HTTP " + response.statusCode());
+            }
+        }
+    }
+
+    @Override
+    public boolean isNonBlocking() {
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    // Upload assinado: SHA-1 dos parâmetros em ordem alfabética seguidos do segredo (file e api_key ficam de fora).
+    private HttpRequest uploadRequest(SpooledImage image) throws FileNotFoundException {
+        String timestamp = String.valueOf(clock.instant().getEpochSecond());
+        String boundary = "packhub-" + UUID.randomUUID();
+
+        String fields = field(boundary, "api_key", apiKey)
+                + field(boundary, "timestamp", timestamp)
+                + field(boundary, "signature", sha1Hex("timestamp=" + timestamp + apiSecret))
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + image.getSha256() + "\"\r\n"
+                + "Content-Type: " + image.getContentType() + "\r\n\r\n";
+        String end = "\r\n--" + boundary + "--\r\n";
+
+        return HttpRequest.newBuilder(uploadUri)
+                .timeout(readTimeout)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofByteArray(fields.getBytes(StandardCharsets.UTF_8)),
+                        HttpRequest.BodyPublishers.ofFile(image.getFile()),
+                        HttpRequest.BodyPublishers.ofByteArray(end.getBytes(StandardCharsets.UTF_8))))
+                .build();
+    }
+
+    private String secureUrl(HttpResponse<byte[]> response) {
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException("Resposta inválida do Cloudinary (HTTP " + response.statusCode() + ")", e);
+        }
+        if (response.statusCode() / 100 != 2 || !body.hasNonNull("secure_url")) {
+            throw new IllegalStateException("Falha ao fazer upload da imagem: HTTP " + response.statusCode()
+                    + " " + body.path("error").path("message").asText(""));
+        }
+        return body.get("secure_url").asText();
+    }
+
+    private static String field(String boundary, String name, String value) {
+        return "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n";
+    }
+
+    private static String sha1Hex(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "cloudinary-http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
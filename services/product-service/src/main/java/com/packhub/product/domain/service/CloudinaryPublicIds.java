@@ -0,0 +1,45 @@
+package com.packhub.product.domain.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conversão das URLs de entrega do Cloudinary para os public ids que a API de exclusão recebe.
+ */
+final class CloudinaryPublicIds {
+
+    // A API de exclusão em lote aceita no máximo 100 public ids por chamada.
+    static final int MAX_PER_REQUEST = 100;
+
+    // .../image/upload/[v<versão>/]<public id>.<extensão>
+    private static final Pattern DELIVERY_URL = Pattern.compile("/image/upload/(?:v\\d+/)?(.+?)(?:\\.[^./]+)?$");
+
+    private CloudinaryPublicIds() {
+    }
+
+    /**
+     * Public ids das URLs informadas, sem repetições. URLs que não são de entrega de imagem do Cloudinary ficam de
+     * fora: não há o que apagar nelas.
+     */
+    static List<String> of(Collection<String> urls) {
+        List<String> publicIds = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            Matcher matcher = DELIVERY_URL.matcher(url);
+            if (matcher.find() && !publicIds.contains(matcher.group(1))) {
+                publicIds.add(matcher.group(1));
+            }
+        }
+        return publicIds;
+    }
+
+    static List<List<String>> chunks(List<String> publicIds) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < publicIds.size(); from += MAX_PER_REQUEST) {
+            chunks.add(publicIds.subList(from, Math.min(publicIds.size(), from + MAX_PER_REQUEST)));
+        }
+        return chunks;
+    }
+}
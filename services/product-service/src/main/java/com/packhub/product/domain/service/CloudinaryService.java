@@ -1,14 +1,17 @@
 package com.packhub.product.domain.service;
 
 import com.cloudinary.Cloudinary;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 @Service
-public class CloudinaryService {
+@ConditionalOnProperty(name = "product.image.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryService implements ImageStorage {
 
     private final Cloudinary cloudinary;
 
@@ -16,13 +19,30 @@ public class CloudinaryService {
         this.cloudinary = cloudinary;
     }
 
-    public String upload(MultipartFile file) {
+    // O SDK envia o arquivo em streaming a partir do disco.
+    @Override
+    public String store(SpooledImage image) {
+        return upload(image.getFile().toFile());
+    }
+
+    public String upload(File file) {
         try {
-            Map<?, ?> result = cloudinary.uploader().upload(file.getBytes(), Map.of());
+            Map<?, ?> result = cloudinary.uploader().upload(file, Map.of());
             return result.get("secure_url").toString();
         } catch (IOException e) {
             throw new RuntimeException("Falha ao fazer upload da imagem", e);
         }
     }
-}
 
+    // Admin API: até 100 public ids por chamada; ids que não existem voltam como "not_found", sem erro.
+    @Override
+    public void deleteAll(List<String> urls) {
+        for (List<String> publicIds : CloudinaryPublicIds.chunks(CloudinaryPublicIds.of(urls))) {
+            try {
+                cloudinary.api().deleteResources(publicIds, Map.of());
+            } catch (Exception e) {
+                throw new RuntimeException("Falha ao apagar imagens", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.config.ShardContext;
+import com.packhub.product.domain.entities.ImageDeletion;
+import com.packhub.product.domain.repositories.ImageAssetRepository;
+import com.packhub.product.domain.repositories.ImageDeletionRepository;
+import com.packhub.product.domain.repositories.ProductImageRepository;
+import com.packhub.product.domain.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Apaga do storage as imagens que deixaram de ser usadas, registradas em IMAGE_DELETIONS pelo
+ * {@link ProductGallery} na mesma transação que trocou a galeria ou excluiu o produto. Roda em segundo plano,
+ * nunca durante uma requisição.
+ * <p>
+ * Cada registro passa por duas etapas. Primeiro a URL sai do índice de deduplicação (IMAGE_ASSETS), para que nenhum
+ * upload novo passe a reaproveitá-la. Depois de {@code grace-period}, tempo de sobra para terminar uma requisição
+ * que já a tinha reaproveitado, a URL é conferida em todos os shards e, se nenhum produto a usa, apagada com a
+ * exclusão em lote do storage. Cada rodada faz no máximo {@code max-requests-per-run} chamadas de exclusão;
+ * falhas voltam para a fila com espera exponencial. Os lotes são travados com SKIP LOCKED, então rodar em várias
+ * instâncias ao mesmo tempo é inofensivo.
+ */
+@Slf4j
+@Component
+public class ImageGarbageCollector {
+
+    private final ImageDeletionRepository imageDeletionRepository;
+    private final ImageAssetRepository imageAssetRepository;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final ImageStorage imageStorage;
+    private final ProductShards productShards;
+    private final PlatformTransactionManager transactionManager;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxRequestsPerRun;
+    private final Duration gracePeriod;
+    private final Duration retryBackoff;
+    private final Duration maxBackoff;
+
+    public ImageGarbageCollector(ImageDeletionRepository imageDeletionRepository,
+                                 ImageAssetRepository imageAssetRepository,
+                                 ProductRepository productRepository,
+                                 ProductImageRepository productImageRepository,
+                                 ImageStorage imageStorage,
+                                 ProductShards productShards,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${product.image.gc.enabled:true}") boolean enabled,
+                                 @Value("${product.image.gc.batch-size:50}") int batchSize,
+                                 @Value("${product.image.gc.max-requests-per-run:5}") int maxRequestsPerRun,
+                                 @Value("${product.image.gc.grace-period:PT15M}") Duration gracePeriod,
+                                 @Value("${product.image.gc.retry-backoff:PT1M}") Duration retryBackoff,
+                                 @Value("${product.image.gc.max-backoff:PT6H}") Duration maxBackoff) {
+        this.imageDeletionRepository = imageDeletionRepository;
+        this.imageAssetRepository = imageAssetRepository;
+        this.productRepository = productRepository;
+        this.productImageRepository = productImageRepository;
+        this.imageStorage = imageStorage;
+        this.productShards = productShards;
+        this.transactionManager = transactionManager;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxRequestsPerRun = maxRequestsPerRun;
+        this.gracePeriod = gracePeriod;
+        this.retryBackoff = retryBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Scheduled(fixedDelayString = "${product.image.gc.interval:PT1M}")
+    public void collect() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger requestsLeft = new AtomicInteger(maxRequestsPerRun);
+        AtomicInteger deleted = new AtomicInteger();
+        // Um lote por shard de cada vez, cada um na sua transação, até esvaziar a fila ou gastar as chamadas.
+        boolean pending = true;
+        while (pending && requestsLeft.get() > 0) {
+            pending = productShards.onEachShardInTurn(() -> inTransaction(() -> collectBatch(requestsLeft, deleted)))
+                    .contains(true);
+        }
+        if (deleted.get() > 0) {
+            log.info("{} imagens sem uso apagadas do storage", deleted.get());
+        }
+    }
+
+    // Roda na transação do shard; devolve se havia registros vencidos, para o laço continuar.
+    private boolean collectBatch(AtomicInteger requestsLeft, AtomicInteger deleted) {
+        if (requestsLeft.get() <= 0) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ImageDeletion> due = imageDeletionRepository.findDue(now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return false;
+        }
+        List<ImageDeletion> indexed = due.stream().filter(deletion -> deletion.getUnindexedAt() == null).toList();
+        List<ImageDeletion> unindexed = due.stream().filter(deletion -> deletion.getUnindexedAt() != null).toList();
+        if (!indexed.isEmpty()) {
+            unindex(indexed.stream().map(ImageDeletion::getUrl).distinct().toList());
+            indexed.forEach(deletion -> {
+                deletion.setUnindexedAt(now);
+                deletion.setNextAttemptAt(now.plus(gracePeriod));
+            });
+        }
+        if (!unindexed.isEmpty()) {
+            deleted.addAndGet(delete(unindexed, now, requestsLeft));
+        }
+        return true;
+    }
+
+    // IMAGE_ASSETS fica no shard padrão: transação própria, fora da do shard em andamento.
+    private void unindex(List<String> urls) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        ShardContext.callOn(null, () -> transaction.execute(status -> imageAssetRepository.deleteByUrlIn(urls)));
+    }
+
+    private int delete(List<ImageDeletion> deletions, LocalDateTime now, AtomicInteger requestsLeft) {
+        List<String> urls = deletions.stream().map(ImageDeletion::getUrl).distinct().toList();
+        Set<String> inUse = new HashSet<>();
+        productShards.onEachShard(() -> {
+            List<String> used = new ArrayList<>(productRepository.findImageUrlsIn(urls));
+            used.addAll(productImageRepository.findUrlsIn(urls));
+            return used;
+        }).forEach(inUse::addAll);
+
+        // Conteúdo repetido reaproveita a URL: se outro produto ainda a usa, o registro só sai da fila. Quando esse
+        // produto também deixar de usá-la, ela volta para a fila.
+        List<ImageDeletion> orphans = deletions.stream()
+                .filter(deletion -> !inUse.contains(deletion.getUrl()))
+                .toList();
+        List<String> targets = orphans.stream()
+                .flatMap(deletion -> Stream.of(deletion.getUrl(), deletion.getThumbnailUrl()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (!targets.isEmpty()) {
+            if (requestsLeft.getAndDecrement() <= 0) {
+                return 0;
+            }
+            try {
+                imageStorage.deleteAll(targets);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao apagar {} imagens do storage; nova tentativa mais tarde", targets.size(), e);
+                orphans.forEach(deletion -> retryLater(deletion, now));
+                imageDeletionRepository.deleteAllInBatch(deletions.stream()
+                        .filter(deletion -> inUse.contains(deletion.getUrl()))
+                        .toList());
+                return 0;
+            }
+        }
+        imageDeletionRepository.deleteAllInBatch(deletions);
+        return targets.size();
+    }
+
+    private void retryLater(ImageDeletion deletion, LocalDateTime now) {
+        deletion.setAttempts(deletion.getAttempts() + 1);
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(deletion.getAttempts() - 1, 20));
+        deletion.setNextAttemptAt(now.plus(backoff.compareTo(maxBackoff) < 0 ? backoff : maxBackoff));
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
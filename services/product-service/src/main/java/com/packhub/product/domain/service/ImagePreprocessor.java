@@ -0,0 +1,259 @@
+package com.packhub.product.domain.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Prepara as imagens antes do upload: limita o lado maior a {@code max-dimension}, aplica a orientação EXIF,
+ * re-encoda com a qualidade configurada e gera a miniatura.
+ * <p>
+ * A decodificação roda no pool {@code imageProcessingExecutor}, do tamanho do número de CPUs: uma foto
+ * decodificada ocupa dezenas de MB no heap, então o número de imagens em processamento ao mesmo tempo não pode
+ * acompanhar o número de threads do Tomcat. Com a fila cheia a requisição recebe 503.
+ * <p>
+ * GIF (pode ser animado), WEBP (sem decoder no JDK) e arquivos que o ImageIO não consegue ler seguem como vieram,
+ * sem miniatura.
+ */
+@Slf4j
+@Component
+public class ImagePreprocessor {
+
+    private static final Map<String, String> FORMATS = Map.of("image/jpeg", "jpeg", "image/png", "png");
+
+    private final Executor executor;
+    private final boolean enabled;
+    private final int maxDimension;
+    private final int thumbnailSize;
+    private final float quality;
+    private final int maxMegapixels;
+
+    public ImagePreprocessor(@Qualifier("imageProcessingExecutor") Executor executor,
+                             @Value("${product.image.processing.enabled:true}") boolean enabled,
+                             @Value("${product.image.processing.max-dimension:2048}") int maxDimension,
+                             @Value("${product.image.processing.thumbnail-size:320}") int thumbnailSize,
+                             @Value("${product.image.processing.quality:0.82}") float quality,
+                             @Value("${product.image.processing.max-megapixels:50}") int maxMegapixels) {
+        this.executor = executor;
+        this.enabled = enabled;
+        this.maxDimension = maxDimension;
+        this.thumbnailSize = thumbnailSize;
+        this.quality = quality;
+        this.maxMegapixels = maxMegapixels;
+    }
+
+    public ProcessedImage process(SpooledImage image) {
+        if (!enabled || !FORMATS.containsKey(image.getContentType())) {
+            return ProcessedImage.unchanged(image);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> preprocess(image), executor).join();
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitas imagens em processamento, tente novamente em instantes");
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private ProcessedImage preprocess(SpooledImage image) {
+        String format = FORMATS.get(image.getContentType());
+        Decoded source = decode(image);
+        if (source == null) {
+            return ProcessedImage.unchanged(image);
+        }
+        BufferedImage decoded = source.image();
+
+        int orientation = "jpeg".equals(format) ? exifOrientation(image.getFile()) : 1;
+        boolean alpha = "png".equals(format) && decoded.getColorModel().hasAlpha();
+        double scale = ImageResizer.scaleToFit(decoded.getWidth(), decoded.getHeight(), maxDimension);
+        BufferedImage full = ImageResizer.orient(ImageResizer.resize(decoded,
+                scaled(decoded.getWidth(), scale), scaled(decoded.getHeight(), scale), alpha), orientation);
+        double thumbnailScale = ImageResizer.scaleToFit(full.getWidth(), full.getHeight(), thumbnailSize);
+        BufferedImage thumbnail = ImageResizer.resize(full,
+                scaled(full.getWidth(), thumbnailScale), scaled(full.getHeight(), thumbnailScale), alpha);
+
+        SpooledImage fullFile = encode(full, format, image.getContentType());
+        if (!source.subsampled() && scale == 1.0 && orientation == 1 && fullFile.getSize() >= image.getSize()) {
+            // Já estava no tamanho e mais comprimida do que a re-encodada ficaria.
+            fullFile.close();
+            fullFile = image;
+        }
+        try {
+            return new ProcessedImage(image, fullFile, encode(thumbnail, format, image.getContentType()));
+        } catch (RuntimeException e) {
+            if (fullFile != image) {
+                fullFile.close();
+            }
+            throw e;
+        }
+    }
+
+    private Decoded decode(SpooledImage image) {
+        try (ImageInputStream in = new FileImageInputStream(image.getFile().toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxMegapixels * 1_000_000L) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "A imagem excede o limite de " + maxMegapixels + " megapixels");
+                }
+                // Subamostragem já na leitura: uma foto muito maior que o limite nem chega inteira ao heap.
+                // Sobra pelo menos o dobro do tamanho final para a redução com interpolação.
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (2 * maxDimension));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return new Decoded(reader.read(0, param), step > 1);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.debug("Imagem {} não decodificada, enviada sem processamento", image.getSha256(), e);
+            return null;
+        }
+    }
+
+    private SpooledImage encode(BufferedImage image, String format, String contentType) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        Path file = null;
+        try {
+            file = Files.createTempFile("product-image-", ".processed");
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file)), digest);
+                 ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if ("jpeg".equals(format)) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(quality);
+                }
+                writer.setOutput(stream);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            return new SpooledImage(file, Files.size(file), contentType, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Falha ao processar a imagem", e);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static int scaled(int size, double scale) {
+        return Math.max(1, (int) Math.round(size * scale));
+    }
+
+    /**
+     * Orientação EXIF (tag 0x0112 do IFD0) lida dos segmentos APP1 do JPEG; 1 quando ausente ou ilegível.
+     */
+    static int exifOrientation(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                // SOS: depois dele só vêm os dados da imagem.
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) {
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (marker == 0xFFE1) {
+                    int orientation = orientationFromExif(in.readNBytes(length));
+                    if (orientation != 0) {
+                        return orientation;
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return 1;
+        }
+    }
+
+    // 0 quando o segmento não é EXIF (o APP1 também carrega XMP) ou não traz a orientação.
+    private static int orientationFromExif(byte[] segment) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(segment);
+            if (buffer.getInt(0) != 0x45786966 || buffer.getShort(4) != 0) {
+                return 0;
+            }
+            int tiff = 6;
+            buffer.order(buffer.getShort(tiff) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            int ifd = tiff + buffer.getInt(tiff + 4);
+            int entries = buffer.getShort(ifd) & 0xFFFF;
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if ((buffer.getShort(entry) & 0xFFFF) == 0x0112) {
+                    int orientation = buffer.getShort(entry + 8) & 0xFFFF;
+                    return orientation >= 1 && orientation <= 8 ? orientation : 0;
+                }
+            }
+            return 0;
+        } catch (IndexOutOfBoundsException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // o diretório temporário é limpo pelo sistema operacional
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Decoded(BufferedImage image, boolean subsampled) {
+    }
+}
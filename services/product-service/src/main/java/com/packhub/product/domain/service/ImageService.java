@@ -0,0 +1,146 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.domain.entities.ImageAsset;
+import com.packhub.product.domain.repositories.ImageAssetRepository;
+import com.packhub.product.dto.UploadedImageDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Ponto único de entrada das imagens de produto: valida, copia para disco, passa pelo {@link ImagePreprocessor}
+ * e envia a imagem e a miniatura ao {@link ImageStorage} ativo.
+ * Conteúdo já enviado antes (mesmo SHA-256 do arquivo original) reaproveita as URLs existentes sem novo upload.
+ */
+@Slf4j
+@Service
+public class ImageService {
+
+    private final ImageSpooler imageSpooler;
+    private final ImagePreprocessor imagePreprocessor;
+    private final ImageStorage imageStorage;
+    private final ImageAssetRepository imageAssetRepository;
+    private final Executor storeExecutor;
+    private final int parallelism;
+
+    public ImageService(ImageSpooler imageSpooler, ImagePreprocessor imagePreprocessor, ImageStorage imageStorage,
+                        ImageAssetRepository imageAssetRepository,
+                        @Qualifier("imageStoreExecutor") Executor storeExecutor,
+                        @Value("${product.image.upload.parallelism:4}") int parallelism) {
+        this.imageSpooler = imageSpooler;
+        this.imagePreprocessor = imagePreprocessor;
+        this.imageStorage = imageStorage;
+        this.imageAssetRepository = imageAssetRepository;
+        this.storeExecutor = storeExecutor;
+        this.parallelism = parallelism;
+    }
+
+    public UploadedImageDTO upload(MultipartFile file) {
+        try (SpooledImage image = imageSpooler.spool(file)) {
+            return upload(image);
+        }
+    }
+
+    public SpooledImage spool(MultipartFile file) {
+        return imageSpooler.spool(file);
+    }
+
+    public UploadedImageDTO upload(SpooledImage image) {
+        return imageAssetRepository.findByHash(image.getSha256())
+                .orElseGet(() -> storeAndIndex(image));
+    }
+
+    /**
+     * Envia várias imagens ao mesmo tempo, no máximo {@code product.image.upload.parallelism} por chamada, e
+     * devolve as URLs na mesma ordem: o tempo total fica perto do upload mais lento, não da soma deles.
+     * Depois da primeira falha nenhum upload novo começa. Só retorna quando todos os iniciados terminaram, com ou
+     * sem erro, porque os arquivos temporários costumam ser apagados em seguida.
+     */
+    public List<UploadedImageDTO> uploadAll(List<SpooledImage> images) {
+        List<CompletableFuture<UploadedImageDTO>> uploads = new ArrayList<>(images.size());
+        Semaphore window = new Semaphore(parallelism);
+        try {
+            for (SpooledImage image : images) {
+                window.acquireUninterruptibly();
+                if (uploads.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+                CompletableFuture<UploadedImageDTO> upload;
+                try {
+                    upload = uploadAsync(image);
+                } catch (RuntimeException e) {
+                    upload = CompletableFuture.failedFuture(e);
+                }
+                // O future original entra na lista: quando a vaga é liberada ele já está concluído e a falha aparece
+                // na verificação acima.
+                upload.whenComplete((uploaded, error) -> window.release());
+                uploads.add(upload);
+            }
+        } finally {
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        }
+        try {
+            return uploads.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Como {@link #upload(SpooledImage)}, mas sem esperar o envio; o arquivo temporário deve existir até o
+     * future terminar. Com um storage bloqueante o upload roda no pool {@code imageStoreExecutor}; com um não
+     * bloqueante só o pré-processamento ocupa a thread de quem chamou.
+     */
+    public CompletableFuture<UploadedImageDTO> uploadAsync(SpooledImage image) {
+        if (!imageStorage.isNonBlocking()) {
+            return CompletableFuture.supplyAsync(() -> upload(image), storeExecutor);
+        }
+        Optional<UploadedImageDTO> existing = imageAssetRepository.findByHash(image.getSha256());
+        if (existing.isPresent()) {
+            return CompletableFuture.completedFuture(existing.get());
+        }
+        ProcessedImage processed = imagePreprocessor.process(image);
+        CompletableFuture<String> full = imageStorage.storeAsync(processed.getFull());
+        CompletableFuture<String> thumbnail = processed.getThumbnail() == null
+                ? full : imageStorage.storeAsync(processed.getThumbnail());
+        // Os arquivos processados só são apagados depois que os dois envios terminaram, mesmo se um deles falhar.
+        CompletableFuture<Void> both = CompletableFuture.allOf(full, thumbnail);
+        both.whenComplete((ignored, error) -> processed.close());
+        return both.thenApply(ignored -> index(image, full.join(), thumbnail.join()));
+    }
+
+    private UploadedImageDTO storeAndIndex(SpooledImage image) {
+        try (ProcessedImage processed = imagePreprocessor.process(image)) {
+            String url = imageStorage.store(processed.getFull());
+            String thumbnailUrl = processed.getThumbnail() == null ? url : imageStorage.store(processed.getThumbnail());
+            return index(image, url, thumbnailUrl);
+        }
+    }
+
+    private UploadedImageDTO index(SpooledImage image, String url, String thumbnailUrl) {
+        try {
+            imageAssetRepository.save(ImageAsset.builder()
+                    .hash(image.getSha256())
+                    .url(url)
+                    .thumbnailUrl(thumbnailUrl)
+                    .contentType(image.getContentType())
+                    .size(image.getSize())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // upload concorrente do mesmo conteúdo já registrou o hash; as duas URLs são válidas
+            log.debug("Imagem {} já indexada por outro upload", image.getSha256());
+        }
+        return new UploadedImageDTO(url, thumbnailUrl);
+    }
+}
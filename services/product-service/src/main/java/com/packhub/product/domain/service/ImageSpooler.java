@@ -0,0 +1,114 @@
+package com.packhub.product.domain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Valida e copia imagens enviadas em multipart para disco sem carregá-las inteiras no heap.
+ * O tamanho declarado é verificado antes de ler qualquer coisa; a assinatura (magic bytes) e o
+ * SHA-256 do conteúdo são obtidos durante a própria cópia.
+ */
+@Component
+public class ImageSpooler {
+
+    static final int SNIFF_LENGTH = 12;
+
+    private final DataSize maxSize;
+
+    public ImageSpooler(@Value("${product.image.max-size:20MB}") DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public SpooledImage spool(MultipartFile image) {
+        if (image == null || image.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Imagem ausente");
+        }
+        if (image.getSize() > maxSize.toBytes()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "A imagem excede o tamanho máximo de " + maxSize.toMegabytes() + "MB");
+        }
+
+        Path file = null;
+        try (DigestInputStream in = new DigestInputStream(image.getInputStream(), sha256())) {
+            // Assinatura e hash saem da mesma leitura: nenhuma passada extra sobre o arquivo.
+            byte[] header = in.readNBytes(SNIFF_LENGTH);
+            String contentType = detectContentType(header);
+            if (contentType == null) {
+                throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                        "O arquivo enviado não é uma imagem JPEG, PNG, GIF ou WEBP");
+            }
+
+            file = Files.createTempFile("product-image-", ".upload");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(header);
+                in.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(in.getMessageDigest().digest());
+            return new SpooledImage(file, Files.size(file), contentType, hash);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new RuntimeException("Falha ao armazenar a imagem para upload", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // o diretório temporário é limpo pelo sistema operacional
+        }
+    }
+
+    /**
+     * Identifica o formato pelos primeiros bytes do arquivo; retorna nulo se não for uma imagem suportada.
+     */
+    public static String detectContentType(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, int... expected) {
+        if (data.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((data[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.packhub.product.domain.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Destino onde as imagens dos produtos são guardadas. A implementação ativa é escolhida por
+ * {@code product.image.storage} ({@code cloudinary}, {@code cloudinary-http} ou {@code local}).
+ */
+public interface ImageStorage {
+
+    /**
+     * Guarda a imagem já validada e retorna a URL pública dela.
+     * O arquivo temporário continua pertencendo a quem chamou.
+     */
+    String store(SpooledImage image);
+
+    /**
+     * Versão assíncrona de {@link #store}; o arquivo temporário deve existir até o future terminar.
+     * Por padrão o envio roda na própria thread de quem chamou.
+     */
+    default CompletableFuture<String> storeAsync(SpooledImage image) {
+        try {
+            return CompletableFuture.completedFuture(store(image));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Se {@link #storeAsync} envia sem ocupar a thread de quem chamou.
+     */
+    default boolean isNonBlocking() {
+        return false;
+    }
+
+    /**
+     * Apaga de uma vez as imagens das URLs informadas, usando a exclusão em lote do destino quando ele tem uma.
+     * URLs que já não existem, ou que não pertencem a este destino, são ignoradas. Só o
+     * {@link ImageGarbageCollector} chama, em segundo plano.
+     */
+    void deleteAll(List<String> urls);
+}
@@ -0,0 +1,204 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.domain.entities.ImageStatus;
+import com.packhub.product.domain.repositories.ProductRepository;
+import com.packhub.product.dto.ProductDTO;
+import com.packhub.product.dto.ProductEventDTO;
+import com.packhub.product.dto.UploadedImageDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Envia as imagens dos produtos em segundo plano, fora da thread da requisição.
+ * O produto já foi salvo com a imagem PENDING; ao final o status vira READY ou FAILED e, com sucesso, a galeria
+ * é trocada pelas imagens enviadas. Como na edição síncrona, a mudança atualiza os índices em memória e sai no
+ * stream de eventos como UPDATED.
+ * <p>
+ * O lugar na fila é reservado ({@link #reserve}) antes de o produto ser gravado: com a fila cheia a requisição
+ * recebe 503 sem deixar produto PENDING para trás, e o upload nunca roda na thread da requisição.
+ */
+@Slf4j
+@Service
+public class ImageUploadWorker {
+
+    private final ProductRepository repository;
+    private final ProductShards productShards;
+    private final ImageService imageService;
+    private final ProductListCache productListCache;
+    private final ProductGallery productGallery;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductPriceIndex productPriceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final TaskExecutor executor;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    // Lugares livres no pool: threads mais a fila. Com todos reservados o executor nunca recusa tarefa.
+    private final Semaphore slots;
+
+    public ImageUploadWorker(ProductRepository repository,
+                             ProductShards productShards,
+                             ImageService imageService,
+                             ProductListCache productListCache,
+                             ProductGallery productGallery,
+                             ProductSearchIndex productSearchIndex,
+                             ProductPriceIndex productPriceIndex,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Qualifier("imageUploadExecutor") TaskExecutor executor,
+                             @Value("${product.image.upload.max-attempts:3}") int maxAttempts,
+                             @Value("${product.image.upload.retry-backoff:PT1S}") Duration retryBackoff,
+                             @Value("${product.image.upload.threads:4}") int threads,
+                             @Value("${product.image.upload.queue-capacity:100}") int queueCapacity) {
+        this.repository = repository;
+        this.productShards = productShards;
+        this.imageService = imageService;
+        this.productListCache = productListCache;
+        this.productGallery = productGallery;
+        this.productSearchIndex = productSearchIndex;
+        this.productPriceIndex = productPriceIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionManager = transactionManager;
+        this.executor = executor;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.slots = new Semaphore(threads + queueCapacity);
+    }
+
+    /**
+     * Reserva lugar para {@code uploads} produtos; com a fila cheia responde 503, antes de qualquer gravação.
+     * Cada {@link #submit} consome um lugar e os que sobrarem voltam ao fechar a reserva.
+     */
+    public Reservation reserve(int uploads) {
+        if (!slots.tryAcquire(uploads)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Fila de upload de imagens cheia; tente novamente em instantes");
+        }
+        return new Reservation(uploads);
+    }
+
+    /**
+     * Agenda o upload dos arquivos temporários, que são apagados ao final; a primeira imagem é a principal.
+     * Usa um dos lugares de {@code reservation}, devolvido quando o upload termina.
+     */
+    public void submit(Reservation reservation, Long productId, String userCode, List<SpooledImage> images) {
+        reservation.take();
+        try {
+            executor.execute(() -> {
+                try {
+                    upload(productId, userCode, images);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Com o lugar reservado só acontece no desligamento: o produto não fica PENDING para sempre.
+            slots.release();
+            log.warn("Upload da imagem do produto {} recusado pelo executor", productId, e);
+            images.forEach(SpooledImage::close);
+            complete(productId, userCode, null, ImageStatus.FAILED);
+        }
+    }
+
+    void upload(Long productId, String userCode, List<SpooledImage> images) {
+        try {
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                try {
+                    // Imagens já enviadas numa tentativa anterior são reaproveitadas pelo hash.
+                    List<UploadedImageDTO> uploaded = imageService.uploadAll(images);
+                    complete(productId, userCode, uploaded, ImageStatus.READY);
+                    return;
+                } catch (RuntimeException e) {
+                    log.warn("Falha no upload da imagem do produto {} (tentativa {}/{})", productId, attempt, maxAttempts, e);
+                    if (attempt < maxAttempts && !sleep(retryBackoff.multipliedBy(attempt))) {
+                        break;
+                    }
+                }
+            }
+            complete(productId, userCode, null, ImageStatus.FAILED);
+        } finally {
+            images.forEach(SpooledImage::close);
+        }
+    }
+
+    private void complete(Long productId, String userCode, List<UploadedImageDTO> uploaded, ImageStatus status) {
+        String imageUrl = uploaded != null ? uploaded.get(0).getUrl() : null;
+        String thumbnailUrl = uploaded != null ? uploaded.get(0).getThumbnailUrl() : null;
+        int updated = productShards.onShardOf(userCode, () -> new TransactionTemplate(transactionManager).execute(
+                transaction -> {
+                    List<UploadedImageDTO> previous = uploaded != null ? productGallery.current(productId) : null;
+                    int rows = repository.updateImage(productId, imageUrl, thumbnailUrl, status, LocalDateTime.now());
+                    if (rows > 0 && uploaded != null) {
+                        productGallery.replace(productId, previous, uploaded);
+                    } else if (uploaded != null) {
+                        // Produto excluído enquanto as imagens subiam.
+                        productGallery.discard(uploaded);
+                    }
+                    return rows;
+                }));
+        productListCache.invalidate(userCode);
+        if (updated == 0) {
+            return;
+        }
+        Optional<ProductDTO> product = productShards.onShardOf(userCode, () -> repository.findDtoById(productId)
+                .map(dto -> {
+                    productGallery.attach(List.of(dto));
+                    return dto;
+                }));
+        product.ifPresent(dto -> {
+            productSearchIndex.put(dto.getId(), dto.getName(), dto.getCreatedAt());
+            productPriceIndex.put(dto.getId(), dto.getPrice());
+            eventPublisher.publishEvent(ProductEventDTO.updated(dto));
+        });
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Lugares reservados na fila por uma requisição; fechar devolve os que não foram usados.
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private int remaining;
+
+        private Reservation(int remaining) {
+            this.remaining = remaining;
+        }
+
+        private void take() {
+            if (remaining == 0) {
+                throw new IllegalStateException("Nenhum lugar reservado para o upload");
+            }
+            remaining--;
+        }
+
+        @Override
+        public void close() {
+            slots.release(remaining);
+            remaining = 0;
+        }
+    }
+}
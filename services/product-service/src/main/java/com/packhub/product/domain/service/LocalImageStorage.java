@@ -0,0 +1,100 @@
+package com.packhub.product.domain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Guarda as imagens no disco local, endereçadas pelo SHA-256 do conteúdo, e as serve por {@code GET /images/{id}}.
+ * Útil para instalações on-prem e testes de carga sem o CDN externo.
+ */
+@Service
+@ConditionalOnProperty(name = "product.image.storage", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalImageStorage(@Value("${product.image.local.dir}") Path root,
+                             @Value("${product.image.local.base-url}") String baseUrl) throws IOException {
+        this.root = Files.createDirectories(root);
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public String store(SpooledImage image) {
+        String id = image.getSha256();
+        Path target = pathOf(id);
+        try {
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                copyAtomically(image.getFile(), target);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao gravar a imagem no disco", e);
+        }
+        return baseUrl + "/images/" + id;
+    }
+
+    @Override
+    public void deleteAll(List<String> urls) {
+        String prefix = baseUrl + "/images/";
+        for (String url : urls) {
+            if (!url.startsWith(prefix)) {
+                continue;
+            }
+            String id = url.substring(prefix.length());
+            try {
+                if (ID_PATTERN.matcher(id).matches()) {
+                    Files.deleteIfExists(pathOf(id));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Falha ao apagar a imagem do disco", e);
+            }
+        }
+    }
+
+    /**
+     * Localiza o arquivo de uma imagem; ids que não são um SHA-256 em hexadecimal nunca chegam ao disco.
+     */
+    public Optional<Path> resolve(String id) {
+        if (id == null || !ID_PATTERN.matcher(id).matches()) {
+            return Optional.empty();
+        }
+        Path file = pathOf(id);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private Path pathOf(String id) {
+        return root.resolve(id.substring(0, 2)).resolve(id);
+    }
+
+    // Copia para um arquivo vizinho e renomeia, para que leitores nunca vejam uma imagem pela metade.
+    private static void copyAtomically(Path source, Path target) throws IOException {
+        Path partial = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        try {
+            Files.copy(source, partial, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partial, target);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // outra requisição gravou o mesmo conteúdo ao mesmo tempo
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+}
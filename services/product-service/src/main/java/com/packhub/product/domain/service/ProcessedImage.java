@@ -0,0 +1,43 @@
+package com.packhub.product.domain.service;
+
+/**
+ * Resultado do {@link ImagePreprocessor}: a imagem a enviar e a miniatura.
+ * Fechar apaga só os arquivos criados no pré-processamento; o original continua com quem o criou.
+ */
+public final class ProcessedImage implements AutoCloseable {
+
+    private final SpooledImage original;
+    private final SpooledImage full;
+    private final SpooledImage thumbnail;
+
+    ProcessedImage(SpooledImage original, SpooledImage full, SpooledImage thumbnail) {
+        this.original = original;
+        this.full = full;
+        this.thumbnail = thumbnail;
+    }
+
+    static ProcessedImage unchanged(SpooledImage original) {
+        return new ProcessedImage(original, original, null);
+    }
+
+    public SpooledImage getFull() {
+        return full;
+    }
+
+    /**
+     * Miniatura re-encodada, ou {@code null} quando a imagem não pôde ser decodificada e vai como veio.
+     */
+    public SpooledImage getThumbnail() {
+        return thumbnail;
+    }
+
+    @Override
+    public void close() {
+        if (full != original) {
+            full.close();
+        }
+        if (thumbnail != null) {
+            thumbnail.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.packhub.product.domain.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição da sincronização incremental: até onde o cliente já viu os produtos, por (updatedAt, id), e as
+ * exclusões, por (deletedAt, productId). Como o {@link ProductCursor}, o token exposto é opaco.
+ */
+public final class ProductChangeToken {
+
+    private static final String SEPARATOR = "|";
+    private static final String START = "-";
+
+    // Nulo antes da primeira página: o cliente ainda não viu nenhum produto.
+    private final LocalDateTime productUpdatedAt;
+    private final long productId;
+    private final LocalDateTime tombstoneDeletedAt;
+    private final long tombstoneId;
+
+    public ProductChangeToken(LocalDateTime productUpdatedAt, long productId,
+                              LocalDateTime tombstoneDeletedAt, long tombstoneId) {
+        this.productUpdatedAt = productUpdatedAt;
+        this.productId = productId;
+        this.tombstoneDeletedAt = tombstoneDeletedAt;
+        this.tombstoneId = tombstoneId;
+    }
+
+    /**
+     * Sincronização completa: todos os produtos e só as exclusões que acontecerem depois de {@code since}.
+     */
+    public static ProductChangeToken initial(LocalDateTime since) {
+        return new ProductChangeToken(null, 0, since, 0);
+    }
+
+    public LocalDateTime getProductUpdatedAt() {
+        return productUpdatedAt;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public LocalDateTime getTombstoneDeletedAt() {
+        return tombstoneDeletedAt;
+    }
+
+    public long getTombstoneId() {
+        return tombstoneId;
+    }
+
+    public String encode() {
+        String raw = (productUpdatedAt == null ? START : productUpdatedAt.toString()) + SEPARATOR + productId
+                + SEPARATOR + tombstoneDeletedAt + SEPARATOR + tombstoneId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductChangeToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw invalid();
+            }
+            return new ProductChangeToken(
+                    parts[0].equals(START) ? null : LocalDateTime.parse(parts[0]),
+                    Long.parseLong(parts[1]),
+                    LocalDateTime.parse(parts[2]),
+                    Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Token de sincronização inválido");
+    }
+}
@@ -0,0 +1,84 @@
+package com.packhub.product.domain.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição de continuação da paginação por cursor, ordenada por (createdAt, id) ou, na ordenação por preço,
+ * por (price, id). O token exposto ao cliente é opaco (Base64 URL-safe) e não deve ser interpretado por ele.
+ */
+public final class ProductCursor {
+
+    private static final char SEPARATOR = '|';
+    private static final String PRICE_PREFIX = "p:";
+
+    private final LocalDateTime createdAt;
+    private final Double price;
+    private final long id;
+
+    public ProductCursor(LocalDateTime createdAt, long id) {
+        this(createdAt, null, id);
+    }
+
+    private ProductCursor(LocalDateTime createdAt, Double price, long id) {
+        this.createdAt = createdAt;
+        this.price = price;
+        this.id = id;
+    }
+
+    public static ProductCursor byPrice(double price, long id) {
+        return new ProductCursor(null, price, id);
+    }
+
+    public boolean isByPrice() {
+        return price != null;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String key = price != null ? PRICE_PREFIX + price : createdAt.toString();
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            if (sep < 0) {
+                throw invalid();
+            }
+            String key = raw.substring(0, sep);
+            long id = Long.parseLong(raw.substring(sep + 1));
+            if (key.startsWith(PRICE_PREFIX)) {
+                return byPrice(Double.parseDouble(key.substring(PRICE_PREFIX.length())), id);
+            }
+            return new ProductCursor(LocalDateTime.parse(key), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de paginação inválido");
+    }
+}
@@ -0,0 +1,204 @@
+package com.packhub.product.domain.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.packhub.product.dto.ProductEventDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Distribui os eventos de produto aos assinantes de GET /products/stream (Server-Sent Events).
+ * <p>
+ * As conexões ficam em modo assíncrono no servlet, sem thread presa por assinante. Cada evento é
+ * serializado uma única vez e enfileirado, sem locks, na fila limitada de cada assinante interessado; um
+ * pool pequeno esvazia as filas, com no máximo uma tarefa por assinante. Assinante lento que enche a fila
+ * perde os eventos mais antigos ({@code drop-oldest}) ou é desconectado ({@code disconnect}), e pode
+ * recuperar o que perdeu em GET /products/changes.
+ */
+@Slf4j
+@Component
+public class ProductEventStream {
+
+    public enum OverflowPolicy { DROP_OLDEST, DISCONNECT }
+
+    private static final Frame HEARTBEAT = new Frame(0, null, null);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor executor;
+    private final int queueCapacity;
+    private final int maxSubscribers;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration timeout;
+
+    public ProductEventStream(ObjectMapper objectMapper,
+                              @Qualifier("productStreamExecutor") TaskExecutor executor,
+                              @Value("${product.stream.queue-capacity:256}") int queueCapacity,
+                              @Value("${product.stream.max-subscribers:5000}") int maxSubscribers,
+                              @Value("${product.stream.overflow:drop-oldest}") String overflowPolicy,
+                              @Value("${product.stream.timeout:PT30M}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        this.timeout = timeout;
+    }
+
+    /**
+     * Abre uma conexão que recebe os eventos de todos os produtos ou, com {@code userCode}, só os desse usuário.
+     */
+    public SseEmitter subscribe(String userCode) {
+        return register(new SseEmitter(timeout.toMillis()), userCode);
+    }
+
+    SseEmitter register(SseEmitter emitter, String userCode) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Limite de conexões de stream atingido");
+        }
+        Subscriber subscriber = new Subscriber(emitter, userCode);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Recebe os eventos publicados pelo {@link ProductService}; dentro de uma transação, só depois do commit.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductEvent(ProductEventDTO event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Frame frame;
+        try {
+            frame = new Frame(sequence.incrementAndGet(), event.getType().name(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Falha ao serializar o evento do produto {}", event.getProductId(), e);
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.userCode == null || subscriber.userCode.equals(event.getUserCode())) {
+                subscriber.enqueue(frame);
+            }
+        }
+    }
+
+    // Mantém proxies e balanceadores com a conexão aberta e detecta clientes que já foram embora.
+    @Scheduled(fixedDelayString = "${product.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.enqueue(HEARTBEAT));
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private record Frame(long id, String name, String data) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final String userCode;
+        private final Queue<Frame> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, String userCode) {
+            this.emitter = emitter;
+            this.userCode = userCode;
+        }
+
+        void enqueue(Frame frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (size.incrementAndGet() > queueCapacity) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    size.decrementAndGet();
+                    close();
+                    return;
+                }
+                if (queue.poll() != null) {
+                    size.decrementAndGet();
+                }
+            }
+            queue.offer(frame);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                Frame frame;
+                while (!closed.get() && (frame = queue.poll()) != null) {
+                    size.decrementAndGet();
+                    send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // Um evento pode ter chegado entre o último poll e a liberação do flag.
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void send(Frame frame) throws IOException {
+            if (frame == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(frame.id()))
+                        .name(frame.name())
+                        .data(frame.data()));
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            queue.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.domain.entities.ImageDeletion;
+import com.packhub.product.domain.entities.ProductImage;
+import com.packhub.product.domain.repositories.ImageDeletionRepository;
+import com.packhub.product.domain.repositories.ProductImageRepository;
+import com.packhub.product.domain.repositories.ProductRepository;
+import com.packhub.product.dto.ProductDTO;
+import com.packhub.product.dto.ProductImageDTO;
+import com.packhub.product.dto.UploadedImageDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Galerias de imagens dos produtos. Todas as operações rodam no shard corrente, que é o do produto.
+ * Na leitura, as galerias de uma página inteira vêm de uma única consulta.
+ * <p>
+ * Imagens que saem de uma galeria nunca são apagadas durante a requisição: vão para IMAGE_DELETIONS na mesma
+ * transação e o {@link ImageGarbageCollector} as apaga do storage depois, em lote.
+ */
+@Service
+public class ProductGallery {
+
+    private final ProductImageRepository repository;
+    private final ProductRepository productRepository;
+    private final ImageDeletionRepository imageDeletionRepository;
+    private final int maxImages;
+
+    public ProductGallery(ProductImageRepository repository,
+                          ProductRepository productRepository,
+                          ImageDeletionRepository imageDeletionRepository,
+                          @Value("${product.gallery.max-images:10}") int maxImages) {
+        this.repository = repository;
+        this.productRepository = productRepository;
+        this.imageDeletionRepository = imageDeletionRepository;
+        this.maxImages = maxImages;
+    }
+
+    public void checkSize(int images) {
+        if (images == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Envie ao menos uma imagem");
+        }
+        if (images > maxImages) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "São permitidas no máximo " + maxImages + " imagens por produto");
+        }
+    }
+
+    /**
+     * Grava as galerias de produtos recém-criados com um único saveAll (INSERTs em lote).
+     */
+    public void create(Map<Long, List<UploadedImageDTO>> galleries) {
+        List<ProductImage> images = new ArrayList<>();
+        galleries.forEach((productId, uploads) -> {
+            for (int position = 0; position < uploads.size(); position++) {
+                images.add(ProductImage.builder()
+                        .productId(productId)
+                        .position(position)
+                        .url(uploads.get(position).getUrl())
+                        .thumbnailUrl(uploads.get(position).getThumbnailUrl())
+                        .build());
+            }
+        });
+        repository.saveAll(images);
+    }
+
+    /**
+     * Imagens que o produto usa hoje: a galeria ou, em produtos anteriores a ela, só a imagem principal.
+     * Deve ser lida antes de a imagem principal ser sobrescrita, na mesma transação.
+     */
+    public List<UploadedImageDTO> current(Long productId) {
+        List<UploadedImageDTO> gallery = repository.findUploadsByProductId(productId);
+        if (!gallery.isEmpty()) {
+            return gallery;
+        }
+        return productRepository.findCoverById(productId).map(List::of).orElse(List.of());
+    }
+
+    /**
+     * Troca a galeria inteira; deve rodar na mesma transação que atualiza a imagem principal do produto.
+     * As imagens de {@code previous} que não continuam na galeria nova vão para a fila de exclusão.
+     */
+    public void replace(Long productId, List<UploadedImageDTO> previous, List<UploadedImageDTO> uploads) {
+        repository.deleteByProductId(productId);
+        create(Map.of(productId, uploads));
+        Set<String> kept = uploads.stream().map(UploadedImageDTO::getUrl).collect(Collectors.toSet());
+        discard(previous.stream().filter(image -> !kept.contains(image.getUrl())).toList());
+    }
+
+    public void delete(Long productId, List<UploadedImageDTO> previous) {
+        repository.deleteByProductId(productId);
+        discard(previous);
+    }
+
+    /**
+     * Põe as imagens na fila do {@link ImageGarbageCollector}, que só as apaga se nenhum produto as usar.
+     */
+    public void discard(List<UploadedImageDTO> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        imageDeletionRepository.saveAll(images.stream()
+                .map(image -> ImageDeletion.builder()
+                        .url(image.getUrl())
+                        .thumbnailUrl(image.getThumbnailUrl())
+                        .createdAt(now)
+                        .nextAttemptAt(now)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Troca a lista {@code images} de cada produto pela galeria gravada. Produtos sem galeria (anteriores a ela)
+     * mantêm a lista só com a imagem principal.
+     */
+    public void attach(List<ProductDTO> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Map<Long, List<ProductImageDTO>> galleries = repository.findDtosByProductIdIn(
+                        products.stream().map(ProductDTO::getId).toList()).stream()
+                .collect(Collectors.groupingBy(ProductImageDTO::getProductId));
+        for (ProductDTO product : products) {
+            List<ProductImageDTO> gallery = galleries.get(product.getId());
+            if (gallery != null) {
+                product.setImages(gallery);
+            }
+        }
+    }
+
+    public static List<ProductImageDTO> toDtos(Long productId, List<UploadedImageDTO> uploads) {
+        List<ProductImageDTO> images = new ArrayList<>(uploads.size());
+        for (int position = 0; position < uploads.size(); position++) {
+            images.add(new ProductImageDTO(productId, position, uploads.get(position).getUrl(),
+                    uploads.get(position).getThumbnailUrl()));
+        }
+        return images;
+    }
+}
@@ -0,0 +1,154 @@
+package com.packhub.product.domain.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.packhub.product.dto.ProductListVersionDTO;
+import com.packhub.product.dto.ProductPageDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache das páginas de produtos de cada usuário, guardadas já serializadas em JSON, junto com a
+ * versão da lista usada nas requisições condicionais (ETag/Last-Modified).
+ * Limitado por quantidade de usuários e por TTL; as escritas em {@link ProductService}
+ * invalidam exatamente o usuário afetado.
+ */
+@Component
+public class ProductListCache {
+
+    private static final String METRIC_NAME = "product.list.cache";
+
+    private final Cache<String, UserLists> cache;
+    private final int maxPagesPerUser;
+    private final ObjectMapper objectMapper;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ProductListCache(@Value("${product.list-cache.max-users:10000}") long maxUsers,
+                            @Value("${product.list-cache.max-pages-per-user:8}") int maxPagesPerUser,
+                            @Value("${product.list-cache.ttl:PT60S}") Duration ttl,
+                            ObjectMapper objectMapper,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.maxPagesPerUser = maxPagesPerUser;
+        this.objectMapper = objectMapper;
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    public CachedPage get(String userCode, String cursor, Integer size, Supplier<ProductPageDTO> loader) {
+        // Uma entrada por usuário: invalidar descarta a entrada inteira, e uma carga concorrente
+        // que termine depois da invalidação grava numa entrada que já não está mais no cache.
+        ConcurrentMap<String, CachedPage> pages = cache.get(userCode, key -> new UserLists()).pages;
+        String pageKey = (cursor == null ? "" : cursor) + ':' + (size == null ? "" : size);
+
+        CachedPage page = pages.get(pageKey);
+        if (page != null) {
+            hits.increment();
+            return page;
+        }
+
+        misses.increment();
+        page = serialize(loader.get());
+        if (pages.size() < maxPagesPerUser) {
+            pages.putIfAbsent(pageKey, page);
+        }
+        return page;
+    }
+
+    /**
+     * Versão atual da lista do usuário; só consulta o banco na primeira vez depois de uma invalidação.
+     */
+    public ProductListVersionDTO version(String userCode, Supplier<ProductListVersionDTO> loader) {
+        UserLists lists = cache.get(userCode, key -> new UserLists());
+        ProductListVersionDTO version = lists.version;
+        if (version == null) {
+            version = loader.get();
+            lists.version = version;
+        }
+        return version;
+    }
+
+    public void invalidate(String userCode) {
+        cache.invalidate(userCode);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    private CachedPage serialize(ProductPageDTO page) {
+        if (page.getItems().isEmpty()) {
+            return new CachedPage(null, null);
+        }
+        try {
+            return new CachedPage(objectMapper.writeValueAsBytes(page.getItems()), page.getNextCursor());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a lista de produtos", e);
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_NAME + ".requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(METRIC_NAME + ".requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder(METRIC_NAME + ".evictions", this, ProductListCache::evictionCount)
+                .register(registry);
+    }
+
+    private static final class UserLists {
+        final ConcurrentMap<String, CachedPage> pages = new ConcurrentHashMap<>();
+        volatile ProductListVersionDTO version;
+    }
+
+    /**
+     * Página pronta para ser escrita na resposta; {@code body} nulo indica lista vazia.
+     */
+    public static final class CachedPage {
+
+        private final byte[] body;
+        private final String nextCursor;
+
+        public CachedPage(byte[] body, String nextCursor) {
+            this.body = body;
+            this.nextCursor = nextCursor;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public boolean isEmpty() {
+            return body == null;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.domain.repositories.ProductRepository;
+import com.packhub.product.dto.ProductPriceEntryDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice opcional, em memória, dos produtos ordenados por (preço, id) em arrays primitivos paralelos.
+ * Responde faixas de preço ordenadas com busca binária, sem consultar o banco nem criar objetos por item.
+ * <p>
+ * Desligado por padrão ({@code product.price-index.enabled}); quando desligado todas as operações são no-op e
+ * as consultas vão para os índices do banco. Como o índice de busca, cada instância mantém o seu.
+ */
+@Slf4j
+@Component
+public class ProductPriceIndex implements SmartInitializingSingleton {
+
+    private final ProductRepository repository;
+    private final ProductShards productShards;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private double[] prices = new double[1024];
+    private long[] ids = new long[1024];
+    private int size;
+
+    public ProductPriceIndex(ProductRepository repository,
+                             ProductShards productShards,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${product.price-index.enabled:false}") boolean enabled) {
+        this.repository = repository;
+        this.productShards = productShards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> productShards.onEachShardInTurn(() -> {
+            // Já vem na ordem do índice (price, id), então a carga é só append; com sharding cada shard
+            // é depois juntado aos anteriores.
+            try (Stream<ProductPriceEntryDTO> entries = repository.streamPriceEntries()) {
+                lock.writeLock().lock();
+                try {
+                    int loaded = size;
+                    entries.forEach(entry -> {
+                        ensureCapacity(size + 1);
+                        prices[size] = entry.getPrice();
+                        ids[size] = entry.getId();
+                        size++;
+                    });
+                    mergeRuns(loaded);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            return null;
+        }));
+        log.info("Índice de preços carregado com {} produtos em {} ms", size, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Insere o produto ou move-o para a posição do novo preço.
+     */
+    public void put(long id, double price) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            removeAt(indexOfId(id));
+            int at = upperBound(price, id);
+            ensureCapacity(size + 1);
+            System.arraycopy(prices, at, prices, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            prices[at] = price;
+            ids[at] = id;
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            removeAt(indexOfId(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids com preço em [{@code min}, {@code max}] na ordem (preço, id), começando depois de
+     * ({@code afterPrice}, {@code afterId}) quando informados. Limites nulos não filtram.
+     */
+    public long[] range(Double min, Double max, Double afterPrice, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = min == null ? 0 : lowerBound(min);
+            if (afterId != null && afterPrice != null) {
+                from = Math.max(from, upperBound(afterPrice, afterId));
+            }
+            double upper = max == null ? Double.POSITIVE_INFINITY : max;
+
+            long[] result = new long[Math.min(limit, Math.max(0, size - from))];
+            int count = 0;
+            for (int i = from; i < size && count < result.length && prices[i] <= upper; i++) {
+                result[count++] = ids[i];
+            }
+            return count == result.length ? result : Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Primeira posição com preço >= price.
+    private int lowerBound(double price) {
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(prices[mid], price) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Primeira posição estritamente depois de (price, id).
+    private int upperBound(double price, long id) {
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(prices[mid], price);
+            if (cmp < 0 || (cmp == 0 && ids[mid] <= id)) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Busca linear: escritas são raras perto das leituras e assim não é preciso um mapa id -> preço.
+    private int indexOfId(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) return i;
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        if (index < 0) return;
+        System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+    }
+
+    // Junta as sequências já ordenadas [0, middle) e [middle, size).
+    private void mergeRuns(int middle) {
+        if (middle == 0 || middle == size) return;
+        double[] mergedPrices = new double[prices.length];
+        long[] mergedIds = new long[ids.length];
+        int left = 0, right = middle;
+        for (int i = 0; i < size; i++) {
+            boolean takeLeft = right == size || (left < middle
+                    && (prices[left] < prices[right] || (prices[left] == prices[right] && ids[left] < ids[right])));
+            int from = takeLeft ? left++ : right++;
+            mergedPrices[i] = prices[from];
+            mergedIds[i] = ids[from];
+        }
+        prices = mergedPrices;
+        ids = mergedIds;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) return;
+        int grown = Math.max(capacity, ids.length * 2);
+        prices = Arrays.copyOf(prices, grown);
+        ids = Arrays.copyOf(ids, grown);
+    }
+}
@@ -0,0 +1,403 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.domain.repositories.ProductRepository;
+import com.packhub.product.dto.ProductSearchEntryDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido de trigramas sobre o nome dos produtos, mantido em memória.
+ * <p>
+ * Cada palavra vira trigramas com dois espaços à esquerda e um à direita ("  ca", " cam", ..., "ta "), então
+ * os trigramas iniciais casam prefixos e a sobreposição parcial tolera erros de digitação. Na consulta a
+ * última palavra não recebe o espaço final, para funcionar como prefixo do que o usuário ainda está digitando.
+ * <p>
+ * É construído na subida da aplicação e atualizado pelas escritas do {@link ProductService}; cada instância
+ * tem o próprio índice.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex implements SmartInitializingSingleton {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 50;
+
+    // Fração mínima dos trigramas da consulta que o nome precisa conter.
+    private static final double MIN_COVERAGE = 0.3;
+    // Com mais de 25% de documentos removidos as postings são compactadas.
+    private static final double COMPACT_RATIO = 0.25;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    private final ProductRepository repository;
+    private final ProductShards productShards;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean loadOnStartup;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Postings postings = new Postings();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final ThreadLocal<int[]> scratch = ThreadLocal.withInitial(() -> new int[0]);
+
+    // Dados por documento em arrays paralelos, indexados pelo número interno do documento.
+    private long[] ids = new long[1024];
+    private long[] createdAt = new long[1024];
+    private short[] trigramCounts = new short[1024];
+    private int docCount;
+    private int deletedCount;
+
+    public ProductSearchIndex(ProductRepository repository,
+                              ProductShards productShards,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${product.search.load-on-startup:true}") boolean loadOnStartup) {
+        this.repository = repository;
+        this.productShards = productShards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    /**
+     * Carrega o catálogo antes do servidor web começar a aceitar requisições.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!loadOnStartup) {
+            return;
+        }
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> productShards.onEachShardInTurn(() -> {
+            try (Stream<ProductSearchEntryDTO> entries = repository.streamSearchEntries()) {
+                entries.forEach(entry -> put(entry.getId(), entry.getName(), entry.getCreatedAt()));
+            }
+            return null;
+        }));
+        log.info("Índice de busca carregado com {} produtos em {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexa um produto novo ou substitui a entrada de um produto já indexado.
+     */
+    public void put(long id, String name, LocalDateTime created) {
+        long[] trigrams = trigrams(name, false);
+        lock.writeLock().lock();
+        try {
+            Integer previous = docById.get(id);
+            if (previous != null) {
+                markDeleted(previous);
+            }
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            ids[doc] = id;
+            createdAt[doc] = created == null ? 0 : created.toEpochSecond(ZoneOffset.UTC);
+            trigramCounts[doc] = (short) Math.min(trigrams.length, Short.MAX_VALUE);
+            for (long trigram : trigrams) {
+                postings.getOrCreate(trigram).add(doc);
+            }
+            docById.put(id, doc);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docById.remove(id);
+            if (doc != null) {
+                markDeleted(doc);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna os ids dos produtos mais relevantes para {@code query}: mais trigramas da consulta encontrados
+     * primeiro, depois maior similaridade (Jaccard, que favorece nomes mais próximos do termo) e, no empate,
+     * os mais recentes.
+     */
+    public List<Long> search(String query, int limit) {
+        long[] queryTrigrams = trigrams(query, true);
+        if (queryTrigrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int minMatches = Math.max(1, (int) Math.ceil(queryTrigrams.length * MIN_COVERAGE));
+
+        lock.readLock().lock();
+        try {
+            int[] counts = scratch(docCount);
+            IntList touched = new IntList();
+            for (long trigram : queryTrigrams) {
+                IntList docs = postings.get(trigram);
+                if (docs == null) continue;
+                for (int i = 0; i < docs.size; i++) {
+                    int doc = docs.values[i];
+                    if (counts[doc]++ == 0) {
+                        touched.add(doc);
+                    }
+                }
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1);
+            for (int i = 0; i < touched.size; i++) {
+                int doc = touched.values[i];
+                int matches = counts[doc];
+                counts[doc] = 0;
+                if (matches < minMatches || deleted.get(doc)) continue;
+
+                double similarity = (double) matches / (queryTrigrams.length + trigramCounts[doc] - matches);
+                Hit hit = new Hit(ids[doc], matches, similarity, createdAt[doc]);
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (hit.compareTo(top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+
+            Long[] result = new Long[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = top.poll().id;
+            }
+            return List.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Minúsculas, sem acentos e só letras/dígitos: "Camiseta Básica" e "camiseta basica" geram os mesmos trigramas.
+    static String normalize(String text) {
+        if (text == null) return "";
+        String decomposed = Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD);
+        return NON_ALNUM.matcher(ACCENTS.matcher(decomposed).replaceAll("")).replaceAll(" ").trim();
+    }
+
+    static long[] trigrams(String text, boolean prefixLastWord) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        String[] words = normalized.split(" ");
+        long[] all = new long[normalized.length() + 3 * words.length];
+        int count = 0;
+        for (int w = 0; w < words.length; w++) {
+            boolean prefix = prefixLastWord && w == words.length - 1;
+            String padded = "  " + words[w] + (prefix ? "" : " ");
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                all[count++] = encode(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+            }
+        }
+        // Ordena e remove repetidos sem criar objetos por trigrama.
+        Arrays.sort(all, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || all[i] != all[distinct - 1]) {
+                all[distinct++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+
+    private static long encode(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private void markDeleted(int doc) {
+        if (!deleted.get(doc)) {
+            deleted.set(doc);
+            deletedCount++;
+        }
+    }
+
+    private int[] scratch(int size) {
+        int[] counts = scratch.get();
+        if (counts.length < size) {
+            counts = new int[Math.max(size, counts.length * 3 / 2)];
+            scratch.set(counts);
+        }
+        return counts;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= ids.length) return;
+        int capacity = Math.max(size, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+    }
+
+    // Renumera os documentos vivos e descarta das postings os removidos. Chamado com o lock de escrita.
+    private void compactIfNeeded() {
+        if (deletedCount < 1024 || deletedCount < docCount * COMPACT_RATIO) {
+            return;
+        }
+        int[] remap = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = live;
+            ids[live] = ids[doc];
+            createdAt[live] = createdAt[doc];
+            trigramCounts[live] = trigramCounts[doc];
+            docById.put(ids[live], live);
+            live++;
+        }
+        postings.remap(remap);
+        docCount = live;
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private record Hit(long id, int matches, double similarity, long createdAt) implements Comparable<Hit> {
+        @Override
+        public int compareTo(Hit other) {
+            int byMatches = Integer.compare(matches, other.matches);
+            if (byMatches != 0) return byMatches;
+            int bySimilarity = Double.compare(similarity, other.similarity);
+            if (bySimilarity != 0) return bySimilarity;
+            int byRecency = Long.compare(createdAt, other.createdAt);
+            return byRecency != 0 ? byRecency : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Postings por trigrama em uma tabela de endereçamento aberto (sondagem linear), com as chaves num
+     * {@code long[]}: nem {@code Long} nem entrada de mapa por trigrama. Slot vazio é o que não tem lista.
+     */
+    static final class Postings {
+        private static final int MIN_CAPACITY = 1024;
+
+        private long[] keys = new long[MIN_CAPACITY];
+        private IntList[] lists = new IntList[MIN_CAPACITY];
+        private int size;
+
+        IntList get(long trigram) {
+            int mask = keys.length - 1;
+            for (int slot = slot(trigram, mask); lists[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == trigram) {
+                    return lists[slot];
+                }
+            }
+            return null;
+        }
+
+        IntList getOrCreate(long trigram) {
+            IntList docs = get(trigram);
+            if (docs == null) {
+                docs = new IntList();
+                if (++size > keys.length / 2) {
+                    rehash(keys.length * 2);
+                }
+                insert(trigram, docs);
+            }
+            return docs;
+        }
+
+        // Renumera os documentos e descarta os trigramas que ficaram sem nenhum.
+        void remap(int[] mapping) {
+            int live = 0;
+            for (IntList docs : lists) {
+                if (docs != null && docs.remap(mapping) > 0) {
+                    live++;
+                }
+            }
+            size = live;
+            int capacity = MIN_CAPACITY;
+            while (capacity / 2 < live) {
+                capacity *= 2;
+            }
+            rehash(capacity);
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            IntList[] oldLists = lists;
+            keys = new long[capacity];
+            lists = new IntList[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldLists[i] != null && oldLists[i].size > 0) {
+                    insert(oldKeys[i], oldLists[i]);
+                }
+            }
+        }
+
+        private void insert(long trigram, IntList docs) {
+            int mask = keys.length - 1;
+            int slot = slot(trigram, mask);
+            while (lists[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = trigram;
+            lists[slot] = docs;
+        }
+
+        // Os trigramas diferem só nos bits baixos de cada caractere; a multiplicação espalha isso pela tabela.
+        private static int slot(long trigram, int mask) {
+            return Long.hashCode(trigram * 0x9E3779B97F4A7C15L) & mask;
+        }
+    }
+
+    /**
+     * Lista de {@code int} sem boxing; as postings ficam ordenadas porque os documentos só crescem.
+     */
+    static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int remap(int[] mapping) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int mapped = mapping[values[i]];
+                if (mapped >= 0) {
+                    values[kept++] = mapped;
+                }
+            }
+            size = kept;
+            if (values.length > 16 && size < values.length / 4) {
+                values = Arrays.copyOf(values, Math.max(4, size));
+            }
+            return size;
+        }
+    }
+}
@@ -1,81 +1,665 @@
 package com.packhub.product.domain.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.packhub.product.config.AuthenticatedUserProvider;
+import com.packhub.product.config.PrimaryReads;
+import com.packhub.product.domain.entities.ImageStatus;
 import com.packhub.product.domain.entities.Product;
+import com.packhub.product.domain.entities.ProductTombstone;
+import com.packhub.product.domain.repositories.ProductQuery;
 import com.packhub.product.domain.repositories.ProductRepository;
+import com.packhub.product.domain.repositories.ProductSort;
+import com.packhub.product.domain.repositories.ProductTombstoneRepository;
 import com.packhub.product.dto.CreateProductDTO;
+import com.packhub.product.dto.ImageStatusDTO;
+import com.packhub.product.dto.ProductChangesDTO;
+import com.packhub.product.dto.ProductDTO;
+import com.packhub.product.dto.ProductEventDTO;
+import com.packhub.product.dto.ProductListVersionDTO;
+import com.packhub.product.dto.ProductOwnershipDTO;
+import com.packhub.product.dto.ProductPageDTO;
+import com.packhub.product.dto.UploadedImageDTO;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_CHANGES_SIZE = 100;
+    public static final int MAX_CHANGES_SIZE = 500;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+    private static final Comparator<ProductDTO> CHANGE_ORDER =
+            Comparator.comparing(ProductDTO::getUpdatedAt).thenComparing(ProductDTO::getId);
+    private static final Comparator<ProductTombstone> TOMBSTONE_ORDER =
+            Comparator.comparing(ProductTombstone::getDeletedAt).thenComparing(ProductTombstone::getProductId);
+
     @Autowired
     private ProductRepository repository;
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ProductTombstoneRepository tombstoneRepository;
+    @Autowired
+    private ImageService imageService;
     @Autowired
     private AuthenticatedUserProvider authenticatedUserProvider;
+    @Autowired
+    private ProductListCache productListCache;
+    @Autowired
+    private ImageUploadWorker imageUploadWorker;
+    @Autowired
+    private ProductGallery productGallery;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private ProductPriceIndex productPriceIndex;
+    @Autowired
+    private ProductShards productShards;
+    @Autowired
+    private SingleFlight singleFlight;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${product.image.upload.async:false}")
+    private boolean asyncImageUpload;
 
-    public Product createProduct(CreateProductDTO dto, MultipartFile image) {
-        String imageUrl = cloudinaryService.upload(image);
+    @Value("${product.bulk.max-items:200}")
+    private int maxBulkItems;
+
+    @Value("${product.changes.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+
+    @Value("${product.changes.safety-window:PT2S}")
+    private Duration changesSafetyWindow;
+
+    /**
+     * Cria o produto com a galeria em {@code images}; a primeira imagem é a principal.
+     * Os uploads correm em paralelo (ver {@link ImageService#uploadAll}) e produto e galeria são gravados na mesma
+     * transação.
+     */
+    public ProductDTO createProduct(CreateProductDTO dto, List<MultipartFile> images) {
+        productGallery.checkSize(images == null ? 0 : images.size());
         String userCode = authenticatedUserProvider.getUserCodeFromToken();
 
         Product product = new Product();
         product.setName(dto.getName());
         product.setPrice(dto.getPrice());
-        product.setImageUrl(imageUrl);
         product.setUserCode(userCode);
 
-        return repository.save(product);
+        if (asyncImageUpload) {
+            // Lugar na fila reservado antes de gravar: com a fila cheia a requisição recebe 503 e nada é salvo.
+            try (ImageUploadWorker.Reservation reservation = imageUploadWorker.reserve(1)) {
+                // O worker passa a ser o dono dos arquivos temporários e os apaga ao final.
+                List<SpooledImage> pendingImages = spoolAll(images);
+                product.setImageStatus(ImageStatus.PENDING);
+                Product saved;
+                try {
+                    saved = productShards.onShardOf(userCode, () -> repository.save(product));
+                } catch (RuntimeException e) {
+                    pendingImages.forEach(SpooledImage::close);
+                    throw e;
+                }
+                imageUploadWorker.submit(reservation, saved.getId(), userCode, pendingImages);
+                return created(saved, null);
+            }
+        }
+
+        List<UploadedImageDTO> uploads = uploadAll(images);
+        product.setImageUrl(uploads.get(0).getUrl());
+        product.setThumbnailUrl(uploads.get(0).getThumbnailUrl());
+        product.setImageStatus(ImageStatus.READY);
+
+        Product saved = productShards.onShardOf(userCode, () -> inTransaction(() -> {
+            Product row = repository.save(product);
+            productGallery.create(Map.of(row.getId(), uploads));
+            return row;
+        }));
+        return created(saved, uploads);
     }
 
-    public List<Product> getProducts() {
-        return this.repository.findAll();
+    /**
+     * Cria vários produtos de uma vez; {@code images} segue a mesma ordem de {@code dtos}.
+     * Todas as imagens são validadas antes do primeiro upload e os produtos são gravados com INSERTs em lote.
+     */
+    public List<ProductDTO> createProducts(List<CreateProductDTO> dtos, List<MultipartFile> images) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nenhum produto informado");
+        }
+        if (dtos.size() > maxBulkItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "São permitidos no máximo " + maxBulkItems + " produtos por requisição");
+        }
+        if (images == null || images.size() != dtos.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Envie uma imagem para cada produto");
+        }
+
+        String userCode = authenticatedUserProvider.getUserCodeFromToken();
+        List<SpooledImage> spooled = new ArrayList<>(images.size());
+        int handedOff = 0;
+        ImageUploadWorker.Reservation reservation = asyncImageUpload ? imageUploadWorker.reserve(dtos.size()) : null;
+        try {
+            for (MultipartFile image : images) {
+                spooled.add(imageService.spool(image));
+            }
+            List<UploadedImageDTO> uploads = asyncImageUpload ? null : imageService.uploadAll(spooled);
+
+            List<Product> products = new ArrayList<>(dtos.size());
+            for (int i = 0; i < dtos.size(); i++) {
+                Product product = new Product();
+                product.setName(dtos.get(i).getName());
+                product.setPrice(dtos.get(i).getPrice());
+                product.setUserCode(userCode);
+                if (asyncImageUpload) {
+                    product.setImageStatus(ImageStatus.PENDING);
+                } else {
+                    product.setImageUrl(uploads.get(i).getUrl());
+                    product.setThumbnailUrl(uploads.get(i).getThumbnailUrl());
+                    product.setImageStatus(ImageStatus.READY);
+                }
+                products.add(product);
+            }
+
+            List<Product> saved = productShards.onShardOf(userCode, () -> inTransaction(() -> {
+                List<Product> rows = repository.saveAll(products);
+                if (uploads != null) {
+                    Map<Long, List<UploadedImageDTO>> galleries = new HashMap<>();
+                    for (int i = 0; i < rows.size(); i++) {
+                        galleries.put(rows.get(i).getId(), List.of(uploads.get(i)));
+                    }
+                    productGallery.create(galleries);
+                }
+                return rows;
+            }));
+            if (asyncImageUpload) {
+                for (; handedOff < saved.size(); handedOff++) {
+                    imageUploadWorker.submit(reservation, saved.get(handedOff).getId(), userCode,
+                            List.of(spooled.get(handedOff)));
+                }
+            }
+            saved.forEach(this::indexProduct);
+            productListCache.invalidate(userCode);
+            List<ProductDTO> created = new ArrayList<>(saved.size());
+            for (int i = 0; i < saved.size(); i++) {
+                ProductDTO product = ProductDTO.from(saved.get(i));
+                if (uploads != null) {
+                    product.setImages(ProductGallery.toDtos(product.getId(), List.of(uploads.get(i))));
+                }
+                eventPublisher.publishEvent(ProductEventDTO.created(product));
+                created.add(product);
+            }
+            return created;
+        } finally {
+            // Arquivos entregues ao worker são apagados por ele; os lugares não usados voltam para a fila.
+            spooled.subList(handedOff, spooled.size()).forEach(SpooledImage::close);
+            if (reservation != null) {
+                reservation.close();
+            }
+        }
     }
 
-    public List<Product> getProductsByUserCode(String userCode) {
-        return repository.findAllByUserCode(userCode);
+    /**
+     * Busca por nome no índice em memória e carrega os produtos encontrados mantendo a ordem de relevância.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> searchProducts(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe o termo de busca");
+        }
+        int max = limit == null
+                ? ProductSearchIndex.DEFAULT_LIMIT
+                : Math.max(1, Math.min(limit, ProductSearchIndex.MAX_LIMIT));
+
+        return loadInOrder(productSearchIndex.search(query, max));
     }
 
-    public Product updateProduct(Long id, CreateProductDTO dto, MultipartFile image) {
-        Product productExist = repository.findById(id)
+    public ImageStatusDTO getImageStatus(Long id) {
+        return productShards.findFirst(() -> repository.findImageStatus(id))
                 .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado"));
+    }
 
-        if (dto.getName() != null) productExist.setName(dto.getName());
-        if (dto.getPrice() != null) productExist.setPrice(dto.getPrice());
+    /**
+     * Lista paginada por cursor, opcionalmente filtrada por faixa de preço e ordenada por preço.
+     * Sem filtros segue pelas consultas fixas por data; com ordenação por preço usa o índice em memória
+     * quando habilitado e, caso contrário, a consulta dinâmica apoiada nos índices do banco.
+     * Com sharding cada shard devolve a sua página e elas são juntadas na ordem da listagem.
+     */
+    @Transactional(readOnly = true)
+    public ProductPageDTO getProducts(String cursor, Integer size, Double minPrice, Double maxPrice, String sort) {
+        int limit = pageSize(size);
+        ProductSort order = ProductSort.from(sort);
+        ProductCursor after = decodeCursor(cursor, order);
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O preço mínimo não pode ser maior que o máximo");
+        }
+
+        List<ProductDTO> rows;
+        if (minPrice == null && maxPrice == null && order == ProductSort.CREATED_AT) {
+            Pageable pageable = PageRequest.of(0, limit + 1);
+            List<List<ProductDTO>> pages = productShards.onEachShard(() -> withGalleries(after == null
+                    ? repository.findFirstPage(pageable)
+                    : repository.findPageAfter(after.getCreatedAt(), after.getId(), pageable)));
+            rows = ProductShards.merge(pages, order.comparator(), limit + 1);
+        } else if (order == ProductSort.PRICE && productPriceIndex.isEnabled()) {
+            long[] ids = productPriceIndex.range(minPrice, maxPrice,
+                    after == null ? null : after.getPrice(), after == null ? null : after.getId(), limit + 1);
+            rows = loadInOrder(Arrays.stream(ids).boxed().toList());
+        } else {
+            ProductQuery query = ProductQuery.builder()
+                    .minPrice(minPrice)
+                    .maxPrice(maxPrice)
+                    .sort(order)
+                    .afterId(after == null ? null : after.getId())
+                    .afterCreatedAt(after == null ? null : after.getCreatedAt())
+                    .afterPrice(after == null ? null : after.getPrice())
+                    .build();
+            List<List<ProductDTO>> pages = productShards.onEachShard(
+                    () -> withGalleries(repository.findPage(query, limit + 1)));
+            rows = ProductShards.merge(pages, order.comparator(), limit + 1);
+        }
+        return toPage(rows, limit, order);
+    }
+
+    /**
+     * Requisições simultâneas pela mesma página compartilham uma única consulta (ver {@link SingleFlight}).
+     * Lida do primário: o resultado vai para o {@link ProductListCache} logo depois de uma invalidação, e uma réplica
+     * atrasada devolveria a lista anterior à escrita, que ficaria no cache até expirar.
+     */
+    public ProductPageDTO getProductsByUserCode(String userCode, String cursor, Integer size) {
+        int limit = pageSize(size);
+        ProductCursor after = decodeCursor(cursor, ProductSort.CREATED_AT);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        return singleFlight.execute("page:" + userCode + ':' + cursor + ':' + limit, () -> readOnPrimary(() -> {
+            List<ProductDTO> rows = productShards.onShardOf(userCode, () -> withGalleries(after == null
+                    ? repository.findFirstPageByUserCode(userCode, pageable)
+                    : repository.findPageByUserCodeAfter(userCode, after.getCreatedAt(), after.getId(), pageable)));
+            return toPage(rows, limit, ProductSort.CREATED_AT);
+        }));
+    }
+
+    /**
+     * Produtos criados ou alterados e ids excluídos desde {@code since}; sem token, começa uma sincronização completa.
+     * Só entram mudanças mais velhas que a janela de segurança, para que uma transação ainda sem commit, com
+     * updatedAt anterior ao de outra já visível, não fique para trás do token.
+     * Lida do primário: o atraso tolerado da réplica passa da janela de segurança, e o token avançaria além de
+     * alterações e exclusões que ela ainda não recebeu, que o cliente nunca mais veria.
+     */
+    public ProductChangesDTO getChanges(String since, Integer size) {
+        return readOnPrimary(() -> changes(since, size));
+    }
+
+    private ProductChangesDTO changes(String since, Integer size) {
+        int limit = size == null ? DEFAULT_CHANGES_SIZE : Math.max(1, Math.min(size, MAX_CHANGES_SIZE));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.minus(changesSafetyWindow);
+
+        ProductChangeToken decoded = ProductChangeToken.decode(since);
+        if (decoded != null && decoded.getTombstoneDeletedAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new ResponseStatusException(HttpStatus.GONE,
+                    "Token de sincronização expirado; faça uma sincronização completa");
+        }
+        ProductChangeToken from = decoded != null ? decoded : ProductChangeToken.initial(until);
+
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<ProductDTO> updated = ProductShards.merge(productShards.onEachShard(() -> withGalleries(
+                from.getProductUpdatedAt() == null
+                        ? repository.findChangedFirstPage(until, pageable)
+                        : repository.findChangedAfter(
+                                from.getProductUpdatedAt(), from.getProductId(), until, pageable))),
+                CHANGE_ORDER, limit + 1);
+        List<ProductTombstone> tombstones = ProductShards.merge(productShards.onEachShard(() ->
+                tombstoneRepository.findPageAfter(from.getTombstoneDeletedAt(), from.getTombstoneId(), until, pageable)),
+                TOMBSTONE_ORDER, limit + 1);
+
+        boolean moreUpdated = updated.size() > limit;
+        boolean moreDeleted = tombstones.size() > limit;
+        if (moreUpdated) updated = updated.subList(0, limit);
+        if (moreDeleted) tombstones = tombstones.subList(0, limit);
+
+        LocalDateTime productUpdatedAt = from.getProductUpdatedAt();
+        long productId = from.getProductId();
+        if (!updated.isEmpty()) {
+            ProductDTO last = updated.get(updated.size() - 1);
+            productUpdatedAt = last.getUpdatedAt();
+            productId = last.getId();
+        }
+        // Sem mais exclusões até 'until', a posição avança até lá; assim um cliente sem exclusões para
+        // receber não tem o token expirado pela retenção.
+        LocalDateTime tombstoneDeletedAt = until;
+        long tombstoneId = Long.MAX_VALUE;
+        if (moreDeleted) {
+            ProductTombstone last = tombstones.get(tombstones.size() - 1);
+            tombstoneDeletedAt = last.getDeletedAt();
+            tombstoneId = last.getProductId();
+        }
+
+        ProductChangeToken next = new ProductChangeToken(productUpdatedAt, productId, tombstoneDeletedAt, tombstoneId);
+        return new ProductChangesDTO(updated,
+                tombstones.stream().map(ProductTombstone::getProductId).toList(),
+                next.encode(),
+                moreUpdated || moreDeleted);
+    }
+
+    /**
+     * Lida do primário pelo mesmo motivo da listagem: a versão vira ETag e Last-Modified em cache, e uma versão
+     * anterior à escrita faria o cliente receber 304 com a lista antiga.
+     * A última exclusão do usuário também conta: sem ela, excluir um produto não avançaria o Last-Modified e um
+     * If-Modified-Since posterior à última edição receberia 304.
+     */
+    public ProductListVersionDTO getListVersion(String userCode) {
+        return singleFlight.execute("version:" + userCode, () -> readOnPrimary(() -> productShards.onShardOf(userCode, () -> {
+            ProductListVersionDTO version = repository.findListVersion(userCode);
+            LocalDateTime lastDeletedAt = tombstoneRepository.findLastDeletedAt(userCode);
+            if (lastDeletedAt != null
+                    && (version.getLastModified() == null || lastDeletedAt.isAfter(version.getLastModified()))) {
+                version.setLastModified(lastDeletedAt);
+            }
+            return version;
+        })));
+    }
 
-        if (image != null && !image.isEmpty()) {
-            String imageUrl = cloudinaryService.upload(image);
-            productExist.setImageUrl(imageUrl);
+    /**
+     * Escreve todo o catálogo em NDJSON (um produto por linha) direto no stream informado.
+     * Cada entidade é desanexada após ser escrita, então o uso de memória não cresce com a tabela.
+     * Com sharding os shards são exportados um depois do outro.
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Product.class);
+        long count;
+        try {
+            count = productShards.onEachShardInTurn(() -> exportShard(writer, out)).stream()
+                    .mapToLong(Long::longValue)
+                    .sum();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
 
+        out.flush();
+        return count;
+    }
+
+    private long exportShard(ObjectWriter writer, OutputStream out) {
+        long count = 0;
+        try (Stream<Product> products = repository.streamAll()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                out.write(writer.writeValueAsBytes(product));
+                out.write('\n');
+                entityManager.detach(product);
+
+                if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    public ProductDTO getProduct(Long id) {
+        return productShards.findFirst(() -> repository.findDtoById(id)
+                        .map(product -> withGalleries(List.of(product)).get(0)))
+                .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado"));
+    }
+
+    /**
+     * Atualiza com um único UPDATE condicionado ao dono e, se {@code expectedVersion} vier do If-Match, à versão.
+     * Com imagens novas, dono e versão são conferidos antes do upload para que requisições recusadas não gerem
+     * imagens órfãs no storage; a galeria é trocada inteira, na mesma transação do UPDATE, e as imagens que saem
+     * dela ficam para o {@link ImageGarbageCollector}.
+     */
+    public ProductDTO updateProduct(Long id, CreateProductDTO dto, List<MultipartFile> images, Long expectedVersion) {
         String userCode = authenticatedUserProvider.getUserCodeFromToken();
-        if (!productExist.getUserCode().equals(userCode)) {
-            throw new AccessDeniedException("Você não tem permissão para editar este produto.");
+
+        List<MultipartFile> newImages = images == null
+                ? List.of()
+                : images.stream().filter(image -> image != null && !image.isEmpty()).toList();
+        boolean hasNewImage = !newImages.isEmpty();
+        if (hasNewImage) {
+            productGallery.checkSize(newImages.size());
+            checkWritable(id, userCode, expectedVersion, "editar");
         }
 
-        productExist.setUpdatedAt(LocalDateTime.now());
-        return repository.save(productExist);
+        List<UploadedImageDTO> uploads = null;
+        ImageStatus imageStatus = null;
+        List<SpooledImage> pendingImages = null;
+        ImageUploadWorker.Reservation reservation = null;
+        if (hasNewImage && asyncImageUpload) {
+            // A galeria anterior continua visível até os novos uploads terminarem. A reserva vem antes do
+            // UPDATE, como na criação: com a fila cheia o produto não é alterado.
+            reservation = imageUploadWorker.reserve(1);
+            try {
+                pendingImages = spoolAll(newImages);
+            } catch (RuntimeException e) {
+                reservation.close();
+                throw e;
+            }
+            imageStatus = ImageStatus.PENDING;
+        } else if (hasNewImage) {
+            uploads = uploadAll(newImages);
+            imageStatus = ImageStatus.READY;
+        }
+
+        int updated = 0;
+        try {
+            List<UploadedImageDTO> gallery = uploads;
+            String newImageUrl = uploads != null ? uploads.get(0).getUrl() : null;
+            String newThumbnailUrl = uploads != null ? uploads.get(0).getThumbnailUrl() : null;
+            ImageStatus newImageStatus = imageStatus;
+            updated = productShards.onShardOf(userCode, () -> inTransaction(() -> {
+                List<UploadedImageDTO> previous = gallery != null ? productGallery.current(id) : null;
+                int rows = repository.updateOwned(id, userCode, dto.getName(), dto.getPrice(), newImageUrl,
+                        newThumbnailUrl, newImageStatus, expectedVersion, LocalDateTime.now());
+                if (rows > 0 && gallery != null) {
+                    productGallery.replace(id, previous, gallery);
+                } else if (gallery != null) {
+                    // Outra escrita venceu depois do upload: as imagens novas não chegam a ser usadas.
+                    productGallery.discard(gallery);
+                }
+                return rows;
+            }));
+        } finally {
+            if (updated == 0 && pendingImages != null) {
+                pendingImages.forEach(SpooledImage::close);
+                reservation.close();
+            }
+        }
+        if (updated == 0) {
+            checkWritable(id, userCode, expectedVersion, "editar");
+            // Dono e versão conferem agora, então outra escrita passou entre o UPDATE e a consulta.
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "O produto foi alterado por outra requisição");
+        }
+
+        if (pendingImages != null) {
+            imageUploadWorker.submit(reservation, id, userCode, pendingImages);
+        }
+        productListCache.invalidate(userCode);
+        ProductDTO updatedProduct = getProduct(id);
+        productSearchIndex.put(id, updatedProduct.getName(), updatedProduct.getCreatedAt());
+        productPriceIndex.put(id, updatedProduct.getPrice());
+        eventPublisher.publishEvent(ProductEventDTO.updated(updatedProduct));
+        return updatedProduct;
     }
 
     public void deleteProduct(Long id) {
-        Product product = repository.findById(id)
+        String userCode = authenticatedUserProvider.getUserCodeFromToken();
+
+        // Transação própria também sem sharding, quando onShardOf roda o trabalho direto: DELETE, tombstone e
+        // fila de exclusão das imagens são gravados juntos ou não são gravados.
+        productShards.onShardOf(userCode, () -> inTransaction(() -> {
+            List<UploadedImageDTO> images = productGallery.current(id);
+            if (repository.deleteOwned(id, userCode) == 0) {
+                // Nada foi excluído: sem tombstone nem evento. Vira 404 ou 403 e, se o produto existir e for do
+                // usuário, outra escrita passou entre o DELETE e a consulta.
+                checkWritable(id, userCode, null, "excluir");
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                        "O produto foi alterado por outra requisição");
+            }
+            // Mesma transação da exclusão: a sincronização incremental nunca perde um produto removido e as
+            // imagens dele entram na fila de exclusão do storage.
+            entityManager.persist(new ProductTombstone(id, userCode, LocalDateTime.now()));
+            productGallery.delete(id, images);
+            return null;
+        }));
+        productSearchIndex.remove(id);
+        productPriceIndex.remove(id);
+        productListCache.invalidate(userCode);
+        eventPublisher.publishEvent(ProductEventDTO.deleted(id, userCode));
+    }
+
+    // Consulta leve (dono e versão) que traduz uma escrita recusada em 404, 403 ou 412.
+    private void checkWritable(Long id, String userCode, Long expectedVersion, String action) {
+        ProductOwnershipDTO current = productShards.findFirst(() -> repository.findOwnership(id))
                 .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado"));
 
-        String userCode = authenticatedUserProvider.getUserCodeFromToken();
+        if (!current.getUserCode().equals(userCode)) {
+            throw new AccessDeniedException("Você não tem permissão para " + action + " este produto.");
+        }
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "O produto foi alterado por outra requisição");
+        }
+    }
+
+    // Os arquivos temporários só existem durante os uploads.
+    private List<UploadedImageDTO> uploadAll(List<MultipartFile> images) {
+        List<SpooledImage> spooled = spoolAll(images);
+        try {
+            return imageService.uploadAll(spooled);
+        } finally {
+            spooled.forEach(SpooledImage::close);
+        }
+    }
 
-        if (!product.getUserCode().equals(userCode)) {
-            throw new AccessDeniedException("Você não tem permissão para excluir este produto.");
+    // Todas validadas e copiadas para disco antes do primeiro upload; se uma for recusada, as anteriores são apagadas.
+    private List<SpooledImage> spoolAll(List<MultipartFile> images) {
+        List<SpooledImage> spooled = new ArrayList<>(images.size());
+        try {
+            for (MultipartFile image : images) {
+                spooled.add(imageService.spool(image));
+            }
+            return spooled;
+        } catch (RuntimeException e) {
+            spooled.forEach(SpooledImage::close);
+            throw e;
         }
+    }
 
-        repository.delete(product);
+    private ProductDTO created(Product saved, List<UploadedImageDTO> uploads) {
+        indexProduct(saved);
+        productListCache.invalidate(saved.getUserCode());
+        ProductDTO product = ProductDTO.from(saved);
+        if (uploads != null) {
+            product.setImages(ProductGallery.toDtos(saved.getId(), uploads));
+        }
+        eventPublisher.publishEvent(ProductEventDTO.created(product));
+        return product;
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null) return DEFAULT_PAGE_SIZE;
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // Transação aberta só por quem executa a leitura: quem espera no SingleFlight não segura conexão do pool.
+    private <T> T readOnly(Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> work.get());
+    }
+
+    // Somente leitura, mas fora da réplica; PrimaryReads envolve a transação para valer desde a primeira consulta.
+    private <T> T readOnPrimary(Supplier<T> work) {
+        return PrimaryReads.call(() -> readOnly(work));
+    }
+
+    // Deve rodar no shard onde as linhas foram lidas: as galerias ficam no mesmo shard dos produtos.
+    private List<ProductDTO> withGalleries(List<ProductDTO> products) {
+        productGallery.attach(products);
+        return products;
+    }
 
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private void indexProduct(Product product) {
+        productSearchIndex.put(product.getId(), product.getName(), product.getCreatedAt());
+        productPriceIndex.put(product.getId(), product.getPrice());
+    }
+
+    // Cursor de uma ordenação não vale em outra: as chaves de continuação são diferentes.
+    private static ProductCursor decodeCursor(String cursor, ProductSort order) {
+        ProductCursor after = ProductCursor.decode(cursor);
+        if (after != null && after.isByPrice() != (order == ProductSort.PRICE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de paginação inválido");
+        }
+        return after;
+    }
+
+    // Carrega os produtos de uma lista de ids (vinda de um índice em memória) preservando a ordem dela.
+    private List<ProductDTO> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductDTO> byId = new HashMap<>();
+        for (List<ProductDTO> shard : productShards.onEachShard(() -> withGalleries(repository.findDtosByIdIn(ids)))) {
+            for (ProductDTO product : shard) {
+                byId.put(product.getId(), product);
+            }
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Busca-se um item a mais que o limite apenas para saber se existe próxima página.
+    private ProductPageDTO toPage(List<ProductDTO> rows, int limit, ProductSort order) {
+        if (rows.size() <= limit) {
+            return new ProductPageDTO(rows, null);
+        }
+        List<ProductDTO> items = rows.subList(0, limit);
+        ProductDTO last = items.get(limit - 1);
+        ProductCursor next = order == ProductSort.PRICE
+                ? ProductCursor.byPrice(last.getPrice(), last.getId())
+                : new ProductCursor(last.getCreatedAt(), last.getId());
+        return new ProductPageDTO(items, next.encode());
     }
 }
@@ -0,0 +1,192 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.config.ShardRouter;
+import com.packhub.product.config.ShardRoutingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ferramenta para incluir um shard: leva cada usuário (produtos, galerias e registros de exclusão) para o shard
+ * que o anel atual indica, copiando para o destino e só depois apagando da origem.
+ * <p>
+ * Roda em uma instância avulsa, já com a nova lista de shards e antes das demais subirem com ela:
+ * {@code --product.sharding.rebalance=true --spring.main.web-application-type=none}. Pode ser repetida: linhas já
+ * copiadas são ignoradas, a versão mais nova vence e a origem só perde a linha que não mudou desde a cópia.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "product.sharding.rebalance", havingValue = "true")
+public class ProductShardRebalancer implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String COLUMNS =
+            "id, name, price, image_url, thumbnail_url, image_status, user_code, created_at, updated_at, version";
+    private static final String IMAGE_COLUMNS = "id, product_id, position, url, thumbnail_url";
+
+    private final ShardRouter router;
+    private final Map<String, DataSource> shards;
+
+    public ProductShardRebalancer(ShardRouter router, ShardRoutingDataSource shardRoutingDataSource) {
+        this(router, shardRoutingDataSource.getShards());
+    }
+
+    ProductShardRebalancer(ShardRouter router, Map<String, DataSource> shards) {
+        this.router = router;
+        this.shards = shards;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Result result = rebalance();
+        log.info("Rebalanceamento concluído: {} usuários, {} produtos e {} exclusões movidos",
+                result.users(), result.products(), result.tombstones());
+    }
+
+    public Result rebalance() {
+        int users = 0;
+        long products = 0;
+        long tombstones = 0;
+        for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+            JdbcTemplate source = new JdbcTemplate(shard.getValue());
+            List<String> userCodes = source.queryForList(
+                    "SELECT user_code FROM products UNION SELECT user_code FROM product_tombstones", String.class);
+            for (String userCode : userCodes) {
+                String owner = router.shardFor(userCode);
+                if (owner.equals(shard.getKey())) {
+                    continue;
+                }
+                JdbcTemplate target = new JdbcTemplate(shards.get(owner));
+                products += moveProducts(userCode, source, target);
+                tombstones += moveTombstones(userCode, source, target);
+                users++;
+                log.info("Usuário {} movido de {} para {}", userCode, shard.getKey(), owner);
+            }
+        }
+        return new Result(users, products, tombstones);
+    }
+
+    // Em lotes por id; ids e versões já presentes no destino decidem entre INSERT, UPDATE ou nada.
+    private long moveProducts(String userCode, JdbcTemplate source, JdbcTemplate target) {
+        Map<Long, Long> targetVersions = new HashMap<>();
+        target.query("SELECT id, version FROM products WHERE user_code = ?",
+                rs -> {
+                    targetVersions.put(rs.getLong(1), rs.getLong(2));
+                }, userCode);
+
+        long moved = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<ProductRow> rows = source.query(
+                    "SELECT " + COLUMNS + " FROM products WHERE user_code = ? AND id > ? ORDER BY id LIMIT " + BATCH_SIZE,
+                    ProductShardRebalancer::productRow, userCode, afterId);
+            if (rows.isEmpty()) {
+                return moved;
+            }
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> deletes = new ArrayList<>();
+            List<Long> copied = new ArrayList<>();
+            for (ProductRow row : rows) {
+                Long targetVersion = targetVersions.get(row.id());
+                if (targetVersion == null) {
+                    inserts.add(row.values());
+                    copied.add(row.id());
+                } else if (targetVersion < row.version()) {
+                    updates.add(row.updateValues());
+                    copied.add(row.id());
+                }
+                deletes.add(new Object[]{row.id(), row.version()});
+            }
+            target.batchUpdate("INSERT INTO products (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", inserts);
+            target.batchUpdate("UPDATE products SET name = ?, price = ?, image_url = ?, thumbnail_url = ?, " +
+                    "image_status = ?, updated_at = ?, version = ? WHERE id = ?", updates);
+            // A galeria só muda junto com a versão do produto: acompanha a linha copiada.
+            copyGalleries(copied, source, target);
+            // Uma escrita que chegou à origem depois da leitura muda a versão e mantém a linha para a próxima rodada.
+            int[] deleted = source.batchUpdate("DELETE FROM products WHERE id = ? AND version = ?", deletes);
+            List<Object[]> deletedIds = new ArrayList<>();
+            for (int i = 0; i < deleted.length; i++) {
+                if (deleted[i] != 0) {
+                    deletedIds.add(new Object[]{deletes.get(i)[0]});
+                }
+            }
+            source.batchUpdate("DELETE FROM product_images WHERE product_id = ?", deletedIds);
+            moved += rows.size();
+            afterId = rows.get(rows.size() - 1).id();
+        }
+    }
+
+    private long moveTombstones(String userCode, JdbcTemplate source, JdbcTemplate target) {
+        List<Object[]> tombstones = source.query(
+                "SELECT product_id, user_code, deleted_at FROM product_tombstones WHERE user_code = ?",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getTimestamp(3)}, userCode);
+        Set<Long> present = new HashSet<>(target.queryForList(
+                "SELECT product_id FROM product_tombstones WHERE user_code = ?", Long.class, userCode));
+        List<Object[]> inserts = tombstones.stream().filter(t -> !present.contains((Long) t[0])).toList();
+        target.batchUpdate("INSERT INTO product_tombstones (product_id, user_code, deleted_at) VALUES (?, ?, ?)", inserts);
+        // Produto excluído na origem depois de já ter sido copiado.
+        target.batchUpdate("DELETE FROM products WHERE id = ?",
+                tombstones.stream().map(t -> new Object[]{t[0]}).toList());
+        target.batchUpdate("DELETE FROM product_images WHERE product_id = ?",
+                tombstones.stream().map(t -> new Object[]{t[0]}).toList());
+        source.batchUpdate("DELETE FROM product_tombstones WHERE product_id = ?",
+                tombstones.stream().map(t -> new Object[]{t[0]}).toList());
+        return tombstones.size();
+    }
+
+    // Troca a galeria dos produtos no destino pela da origem; os ids das imagens vêm de faixas distintas por shard.
+    private static void copyGalleries(List<Long> productIds, JdbcTemplate source, JdbcTemplate target) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        List<Object[]> images = source.query(
+                "SELECT " + IMAGE_COLUMNS + " FROM product_images WHERE product_id IN (" + placeholders + ")",
+                (rs, rowNum) -> new Object[]{
+                        rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getString(4), rs.getString(5)},
+                productIds.toArray());
+        target.batchUpdate("DELETE FROM product_images WHERE product_id = ?",
+                productIds.stream().map(id -> new Object[]{id}).toList());
+        target.batchUpdate("INSERT INTO product_images (" + IMAGE_COLUMNS + ") VALUES (?, ?, ?, ?, ?)", images);
+    }
+
+    private static ProductRow productRow(ResultSet rs, int rowNum) throws SQLException {
+        return new ProductRow(rs.getLong("id"), rs.getString("name"), rs.getDouble("price"),
+                rs.getString("image_url"), rs.getString("thumbnail_url"), rs.getString("image_status"),
+                rs.getString("user_code"), rs.getTimestamp("created_at"), rs.getTimestamp("updated_at"),
+                rs.getLong("version"));
+    }
+
+    public record Result(int users, long products, long tombstones) {
+    }
+
+    private record ProductRow(long id, String name, double price, String imageUrl, String thumbnailUrl,
+                              String imageStatus, String userCode, Timestamp createdAt, Timestamp updatedAt,
+                              long version) {
+
+        Object[] values() {
+            return new Object[]{id, name, price, imageUrl, thumbnailUrl, imageStatus, userCode, createdAt, updatedAt,
+                    version};
+        }
+
+        Object[] updateValues() {
+            return new Object[]{name, price, imageUrl, thumbnailUrl, imageStatus, updatedAt, version, id};
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.config.ShardContext;
+import com.packhub.product.config.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Direciona o acesso a PRODUCTS para o shard certo.
+ * <p>
+ * Sem sharding ({@code product.sharding.enabled=false}) há um único banco e todo trabalho roda direto, na thread
+ * e na transação de quem chamou. Com sharding, operações de um usuário vão só para o shard dele e leituras globais
+ * consultam todos os shards em paralelo; cada shard roda em uma transação própria, somente leitura quando a
+ * transação de quem chamou for.
+ */
+@Component
+public class ProductShards {
+
+    private final ShardRouter router;
+    private final PlatformTransactionManager transactionManager;
+    private final TaskExecutor executor;
+
+    @Autowired
+    public ProductShards(ObjectProvider<ShardRouter> router,
+                         ObjectProvider<PlatformTransactionManager> transactionManager,
+                         @Qualifier("productShardExecutor") ObjectProvider<TaskExecutor> executor) {
+        this(router.getIfAvailable(), transactionManager.getIfAvailable(),
+                executor.getIfAvailable(SyncTaskExecutor::new));
+    }
+
+    public ProductShards(ShardRouter router, PlatformTransactionManager transactionManager, TaskExecutor executor) {
+        this.router = router;
+        this.transactionManager = transactionManager;
+        this.executor = executor;
+    }
+
+    // Um único banco, sem roteamento.
+    ProductShards() {
+        this(null, null, new SyncTaskExecutor());
+    }
+
+    public boolean isSharded() {
+        return router != null;
+    }
+
+    public <T> T onShardOf(String userCode, Supplier<T> work) {
+        if (router == null) {
+            return work.get();
+        }
+        return onShard(router.shardFor(userCode), work, TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    public void runOnShardOf(String userCode, Runnable work) {
+        onShardOf(userCode, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Roda {@code work} em todos os shards ao mesmo tempo e devolve um resultado por shard.
+     */
+    public <T> List<T> onEachShard(Supplier<T> work) {
+        if (router == null) {
+            return List.of(work.get());
+        }
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        List<CompletableFuture<T>> futures = router.getShards().stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> onShard(shard, work, readOnly), executor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Como {@link #onEachShard}, mas um shard depois do outro na thread atual; para leituras em stream, que
+     * escrevem o resultado à medida que avançam.
+     */
+    public <T> List<T> onEachShardInTurn(Supplier<T> work) {
+        if (router == null) {
+            return List.of(work.get());
+        }
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        List<T> results = new ArrayList<>(router.getShards().size());
+        for (String shard : router.getShards()) {
+            results.add(onShard(shard, work, readOnly));
+        }
+        return results;
+    }
+
+    // Busca por id: o id não diz o shard, então pergunta a todos e fica com o que encontrar.
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> work) {
+        return onEachShard(work).stream().flatMap(Optional::stream).findFirst();
+    }
+
+    /**
+     * Junta listas já ordenadas por {@code order} (k-way merge) e devolve no máximo {@code limit} itens.
+     * Cada shard responde à mesma consulta de keyset, então o resultado é a página global.
+     */
+    public static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, int limit) {
+        if (sorted.size() == 1) {
+            List<T> only = sorted.get(0);
+            return only.size() <= limit ? only : only.subList(0, limit);
+        }
+        // Cada entrada da fila é {lista, posição}; a cabeça é o menor item ainda não consumido.
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (a, b) -> order.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<T> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<T> list = sorted.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    // Transação nova mesmo dentro de outra: a conexão da transação externa pode estar presa a outro shard.
+    private <T> T onShard(String shard, Supplier<T> work, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(readOnly);
+        return ShardContext.callOn(shard, () -> transaction.execute(status -> work.get()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.domain.repositories.ProductTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Remove os registros de exclusão mais velhos que a retenção. Tokens de sincronização anteriores a ela
+ * passam a receber 410 em GET /products/changes. Rodar em várias instâncias ao mesmo tempo é inofensivo.
+ */
+@Slf4j
+@Component
+public class ProductTombstonePurger {
+
+    private final ProductTombstoneRepository repository;
+    private final ProductShards productShards;
+    private final Duration retention;
+
+    public ProductTombstonePurger(ProductTombstoneRepository repository,
+                                  ProductShards productShards,
+                                  @Value("${product.changes.tombstone-retention:P30D}") Duration retention) {
+        this.repository = repository;
+        this.productShards = productShards;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${product.changes.purge-interval:PT1H}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int removed = productShards.onEachShard(() -> repository.deleteOlderThan(cutoff)).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        if (removed > 0) {
+            log.info("{} registros de exclusão removidos (retenção de {})", removed, retention);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.packhub.product.domain.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Isola o {@link ImageStorage} ativo do resto do serviço. Um semáforo limita os uploads simultâneos, para que um
+ * CDN lento não prenda todas as threads do Tomcat, e um {@link CircuitBreaker} passa a recusar os uploads na hora
+ * quando as falhas ou a lentidão passam do limite. Nos dois casos a requisição recebe 503.
+ * <p>
+ * Uploads assíncronos não prendem thread enquanto esperam o CDN, então usam um limite próprio, maior, e são
+ * recusados na hora quando ele se esgota.
+ */
+public class ResilientImageStorage implements ImageStorage {
+
+    private static final String METRIC_NAME = "product.image.storage";
+
+    private final ImageStorage delegate;
+    private final Semaphore bulkhead;
+    private final Duration bulkheadMaxWait;
+    private final Semaphore asyncBulkhead;
+    private final CircuitBreaker breaker;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder breakerRejections = new LongAdder();
+    private final LongAdder bulkheadRejections = new LongAdder();
+
+    public ResilientImageStorage(ImageStorage delegate, int maxConcurrentUploads, Duration bulkheadMaxWait,
+                                 int maxConcurrentAsyncUploads, CircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.bulkhead = new Semaphore(maxConcurrentUploads);
+        this.bulkheadMaxWait = bulkheadMaxWait;
+        this.asyncBulkhead = new Semaphore(maxConcurrentAsyncUploads);
+        this.breaker = breaker;
+    }
+
+    @Override
+    public String store(SpooledImage image) {
+        if (!acquireBulkhead()) {
+            bulkheadRejections.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitos uploads de imagem em andamento, tente novamente em instantes");
+        }
+        try {
+            if (!breaker.tryAcquire()) {
+                breakerRejections.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Serviço de imagens indisponível, tente novamente em instantes");
+            }
+            long start = breaker.clock();
+            boolean failed = true;
+            try {
+                String url = delegate.store(image);
+                failed = false;
+                return url;
+            } finally {
+                breaker.record(breaker.clock() - start, failed);
+                (failed ? failures : successes).increment();
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> storeAsync(SpooledImage image) {
+        if (!delegate.isNonBlocking()) {
+            // O envio ocuparia a thread de quem chamou: passa pelo limite dos uploads síncronos.
+            return ImageStorage.super.storeAsync(image);
+        }
+        if (!asyncBulkhead.tryAcquire()) {
+            bulkheadRejections.increment();
+            return CompletableFuture.failedFuture(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitos uploads de imagem em andamento, tente novamente em instantes"));
+        }
+        if (!breaker.tryAcquire()) {
+            asyncBulkhead.release();
+            breakerRejections.increment();
+            return CompletableFuture.failedFuture(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Serviço de imagens indisponível, tente novamente em instantes"));
+        }
+        long start = breaker.clock();
+        CompletableFuture<String> upload;
+        try {
+            upload = delegate.storeAsync(image);
+        } catch (RuntimeException e) {
+            upload = CompletableFuture.failedFuture(e);
+        }
+        return upload.whenComplete((url, error) -> {
+            breaker.record(breaker.clock() - start, error != null);
+            (error != null ? failures : successes).increment();
+            asyncBulkhead.release();
+        });
+    }
+
+    // Fora do bulkhead e do circuit breaker: roda em uma única thread de fundo, e a API de exclusão tem limite de
+    // chamadas próprio, então uma falha dela não deve passar a recusar os uploads.
+    @Override
+    public void deleteAll(List<String> urls) {
+        delegate.deleteAll(urls);
+    }
+
+    @Override
+    public boolean isNonBlocking() {
+        return delegate.isNonBlocking();
+    }
+
+    public CircuitBreaker.State getState() {
+        return breaker.getState();
+    }
+
+    public void registerMetrics(MeterRegistry registry) {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder(METRIC_NAME + ".breaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase())
+                    .register(registry);
+        }
+        Gauge.builder(METRIC_NAME + ".bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("mode", "sync")
+                .register(registry);
+        Gauge.builder(METRIC_NAME + ".bulkhead.available", asyncBulkhead, Semaphore::availablePermits)
+                .tag("mode", "async")
+                .register(registry);
+        counter(registry, "success", successes);
+        counter(registry, "failure", failures);
+        counter(registry, "breaker_open", breakerRejections);
+        counter(registry, "bulkhead_full", bulkheadRejections);
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadMaxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void counter(MeterRegistry registry, String result, LongAdder count) {
+        FunctionCounter.builder(METRIC_NAME + ".calls", count, LongAdder::sum)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,122 @@
+package com.packhub.product.domain.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Junta leituras idênticas e simultâneas em uma só chamada ao banco: a primeira requisição de uma chave executa a
+ * consulta e as que chegam enquanto ela roda esperam e recebem o mesmo resultado (ou a mesma exceção).
+ * <p>
+ * Nada fica guardado depois que a chamada termina; quem chega depois dispara uma consulta nova. Quem esperar mais
+ * que {@code product.single-flight.timeout} desiste e faz a própria consulta. O resultado é compartilhado entre
+ * as threads: devolva DTOs imutáveis, nunca entidades gerenciadas, que pertencem ao EntityManager de quem as leu.
+ * <p>
+ * O auth-service tem uma cópia desta classe, pois os serviços são construídos separadamente, sem módulo
+ * compartilhado. Mudanças aqui devem ser levadas para lá.
+ */
+@Component
+public class SingleFlight {
+
+    private static final String METRIC_NAME = "product.read.coalescing.requests";
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    @Autowired
+    public SingleFlight(@Value("${product.single-flight.timeout:PT5S}") Duration timeout,
+                        ObjectProvider<MeterRegistry> meterRegistry) {
+        this(timeout);
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    SingleFlight(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            return (T) await(running, loader);
+        }
+
+        executed.increment();
+        try {
+            T value = loader.get();
+            // Sai do mapa antes de completar: quem chegar agora já dispara uma consulta nova.
+            inFlight.remove(key, call);
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public long executedCount() {
+        return executed.sum();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long timeoutCount() {
+        return timedOut.sum();
+    }
+
+    private Object await(CompletableFuture<Object> running, Supplier<?> loader) {
+        try {
+            Object value = running.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            coalesced.increment();
+            return value;
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando leitura em andamento", e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return (RuntimeException) cause;
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_NAME, executed, LongAdder::sum)
+                .tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder(METRIC_NAME, coalesced, LongAdder::sum)
+                .tag("result", "coalesced")
+                .register(registry);
+        FunctionCounter.builder(METRIC_NAME, timedOut, LongAdder::sum)
+                .tag("result", "timeout")
+                .register(registry);
+    }
+}
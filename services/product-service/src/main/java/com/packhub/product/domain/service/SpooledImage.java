@@ -0,0 +1,55 @@
+package com.packhub.product.domain.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imagem já validada e copiada para um arquivo temporário em disco.
+ * Fechar apaga o arquivo.
+ */
+@Slf4j
+public final class SpooledImage implements AutoCloseable {
+
+    private final Path file;
+    private final long size;
+    private final String contentType;
+    private final String sha256;
+
+    public SpooledImage(Path file, long size, String contentType, String sha256) {
+        this.file = file;
+        this.size = size;
+        this.contentType = contentType;
+        this.sha256 = sha256;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * SHA-256 do conteúdo em hexadecimal minúsculo, calculado durante a cópia para disco.
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar o arquivo temporário {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.packhub.product.dto;
+
+import com.packhub.product.domain.entities.ImageStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImageStatusDTO {
+
+    @Schema(description = "ID do produto", example = "1")
+    private Long productId;
+
+    @Schema(description = "Situação do upload da imagem", example = "PENDING")
+    private ImageStatus status;
+
+    @Schema(description = "URL da imagem; a anterior é mantida até o novo upload terminar",
+            example = "https://res.cloudinary.com/app/image/upload/abc123.jpg")
+    private String imageUrl;
+}
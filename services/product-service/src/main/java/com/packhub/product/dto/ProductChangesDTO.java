@@ -0,0 +1,24 @@
+package com.packhub.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductChangesDTO {
+
+    @Schema(description = "Produtos criados ou alterados desde o token, em ordem de updatedAt")
+    private List<ProductDTO> updated;
+
+    @Schema(description = "Ids dos produtos excluídos desde o token")
+    private List<Long> deleted;
+
+    @Schema(description = "Token a enviar em since na próxima chamada; sempre presente", example = "MjAyNS0wNi0wMVQxMDowMDowMHw0Mg")
+    private String nextToken;
+
+    @Schema(description = "Indica que há mais mudanças e a próxima chamada pode ser feita imediatamente")
+    private boolean hasMore;
+}
@@ -1,9 +1,14 @@
 package com.packhub.product.dto;
 
+import com.packhub.product.domain.entities.ImageStatus;
+import com.packhub.product.domain.entities.Product;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 public class ProductDTO {
@@ -20,7 +25,49 @@ public class ProductDTO {
     @Schema(description = "URL da imagem do produto", example = "https://res.cloudinary.com/app/image/upload/abc123.jpg")
     private String imageUrl;
 
+    @Schema(description = "URL da miniatura; igual à imagem principal em produtos anteriores às miniaturas",
+            example = "https://res.cloudinary.com/app/image/upload/def456.jpg")
+    private String thumbnailUrl;
+
+    @Schema(description = "Situação do upload da imagem", example = "READY")
+    private ImageStatus imageStatus;
+
     @Schema(description = "Código do usuário", example = "user123")
     private String userCode;
-}
 
+    @Schema(description = "Data de criação", example = "2025-06-01T10:00:00")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Data da última atualização", example = "2025-06-01T10:00:00")
+    private LocalDateTime updatedAt;
+
+    @Schema(description = "Versão do produto; é a ETag usada no If-Match do PUT", example = "3")
+    private Long version;
+
+    @Schema(description = "Galeria de imagens em ordem de exibição; a primeira é a imagem principal")
+    private List<ProductImageDTO> images;
+
+    // Usado pelas projeções JPQL. A lista começa só com a imagem principal, que é o que vale para produtos
+    // anteriores à galeria; o ProductGallery troca pela galeria completa, em lote.
+    public ProductDTO(Long id, String name, Double price, String imageUrl, String thumbnailUrl,
+                      ImageStatus imageStatus, String userCode, LocalDateTime createdAt, LocalDateTime updatedAt,
+                      Long version) {
+        this(id, name, price, imageUrl, thumbnailUrl, imageStatus, userCode, createdAt, updatedAt, version,
+                imageUrl == null ? List.of() : List.of(new ProductImageDTO(id, 0, imageUrl, thumbnailUrl)));
+    }
+
+    public static ProductDTO from(Product product) {
+        return new ProductDTO(
+                product.getId(),
+                product.getName(),
+                product.getPrice(),
+                product.getImageUrl(),
+                product.getThumbnailUrl() != null ? product.getThumbnailUrl() : product.getImageUrl(),
+                product.getImageStatus(),
+                product.getUserCode(),
+                product.getCreatedAt(),
+                product.getUpdatedAt(),
+                product.getVersion()
+        );
+    }
+}
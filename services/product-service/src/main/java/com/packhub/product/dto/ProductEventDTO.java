@@ -0,0 +1,39 @@
+package com.packhub.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Mudança de um produto, publicada pelo ProductService e enviada aos assinantes de GET /products/stream.
+ */
+@Data
+@AllArgsConstructor
+public class ProductEventDTO {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    @Schema(description = "Tipo da mudança", example = "UPDATED")
+    private Type type;
+
+    @Schema(description = "ID do produto", example = "1")
+    private Long productId;
+
+    @Schema(description = "Código do dono do produto", example = "user123")
+    private String userCode;
+
+    @Schema(description = "Estado atual do produto; nulo em DELETED")
+    private ProductDTO product;
+
+    public static ProductEventDTO created(ProductDTO product) {
+        return new ProductEventDTO(Type.CREATED, product.getId(), product.getUserCode(), product);
+    }
+
+    public static ProductEventDTO updated(ProductDTO product) {
+        return new ProductEventDTO(Type.UPDATED, product.getId(), product.getUserCode(), product);
+    }
+
+    public static ProductEventDTO deleted(Long productId, String userCode) {
+        return new ProductEventDTO(Type.DELETED, productId, userCode, null);
+    }
+}
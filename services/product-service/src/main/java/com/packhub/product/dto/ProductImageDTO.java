@@ -0,0 +1,23 @@
+package com.packhub.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductImageDTO {
+
+    @JsonIgnore
+    private Long productId;
+
+    @Schema(description = "Posição na galeria, a partir de 0", example = "0")
+    private Integer position;
+
+    @Schema(description = "URL da imagem", example = "https://res.cloudinary.com/app/image/upload/abc123.jpg")
+    private String url;
+
+    @Schema(description = "URL da miniatura", example = "https://res.cloudinary.com/app/image/upload/def456.jpg")
+    private String thumbnailUrl;
+}
@@ -0,0 +1,20 @@
+package com.packhub.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validador barato da lista de produtos de um usuário: maior data entre os updatedAt e as exclusões ainda
+ * retidas, e quantidade de produtos. Qualquer criação, edição ou exclusão avança a data.
+ */
+@Data
+@AllArgsConstructor
+public class ProductListVersionDTO {
+
+    // Nulo quando o usuário não tem produtos nem exclusões retidas.
+    private LocalDateTime lastModified;
+
+    private Long count;
+}
@@ -0,0 +1,16 @@
+package com.packhub.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Dono e versão atual de um produto; usado para explicar por que uma escrita condicional foi recusada.
+ */
+@Data
+@AllArgsConstructor
+public class ProductOwnershipDTO {
+
+    private String userCode;
+
+    private Long version;
+}
@@ -0,0 +1,18 @@
+package com.packhub.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductPageDTO {
+
+    @Schema(description = "Produtos da página atual")
+    private List<ProductDTO> items;
+
+    @Schema(description = "Token opaco para buscar a próxima página; nulo quando não há mais itens", example = "MjAyNS0wNi0wMVQxMDowMDowMHw0Mg")
+    private String nextCursor;
+}
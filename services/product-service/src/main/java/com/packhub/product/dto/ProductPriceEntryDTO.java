@@ -0,0 +1,16 @@
+package com.packhub.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Id e preço de um produto, usados para carregar o índice de preços em memória.
+ */
+@Data
+@AllArgsConstructor
+public class ProductPriceEntryDTO {
+
+    private Long id;
+
+    private Double price;
+}
@@ -0,0 +1,20 @@
+package com.packhub.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Campos do produto usados pelo índice de busca em memória.
+ */
+@Data
+@AllArgsConstructor
+public class ProductSearchEntryDTO {
+
+    private Long id;
+
+    private String name;
+
+    private LocalDateTime createdAt;
+}
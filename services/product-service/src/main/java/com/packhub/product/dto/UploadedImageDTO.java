@@ -0,0 +1,16 @@
+package com.packhub.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * URLs de uma imagem já enviada ao storage: a imagem em tamanho de exibição e a miniatura.
+ */
+@Data
+@AllArgsConstructor
+public class UploadedImageDTO {
+
+    private String url;
+
+    private String thumbnailUrl;
+}
@@ -0,0 +1,69 @@
+package com.packhub.product.web;
+
+import com.packhub.product.domain.service.ImageSpooler;
+import com.packhub.product.domain.service.LocalImageStorage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@CrossOrigin(origins = "*")
+@RestController
+@RequestMapping("/images")
+@ConditionalOnProperty(name = "product.image.storage", havingValue = "local")
+public class ImageController {
+
+    // O id é o hash do conteúdo, então a resposta nunca muda e pode ficar em cache indefinidamente.
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final LocalImageStorage localImageStorage;
+
+    public ImageController(LocalImageStorage localImageStorage) {
+        this.localImageStorage = localImageStorage;
+    }
+
+    // Range (um ou vários trechos), 206, 416, HEAD e o 304 pela ETag ficam com o Spring, que trata o corpo
+    // Resource como um arquivo e escreve só os trechos pedidos.
+    @Operation(summary = "Servir imagem armazenada localmente", description = "Suporta Range e cache por ETag")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Imagem completa"),
+            @ApiResponse(responseCode = "206", description = "Trecho solicitado pelo header Range"),
+            @ApiResponse(responseCode = "304", description = "Imagem não modificada"),
+            @ApiResponse(responseCode = "404", description = "Imagem não encontrada"),
+            @ApiResponse(responseCode = "416", description = "Range inválido")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<Resource> getImage(
+            @Parameter(description = "SHA-256 do conteúdo da imagem")
+            @PathVariable String id
+    ) throws IOException {
+        Path file = localImageStorage.resolve(id)
+                .orElseThrow(() -> new EntityNotFoundException("Imagem não encontrada"));
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                .eTag('"' + id + '"')
+                .contentType(contentType(file))
+                .body(new FileSystemResource(file));
+    }
+
+    private static MediaType contentType(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            String detected = ImageSpooler.detectContentType(in.readNBytes(16));
+            return detected != null ? MediaType.parseMediaType(detected) : MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
@@ -1,103 +1,294 @@
 package com.packhub.product.web;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.packhub.product.domain.entities.Product;
+import com.packhub.product.config.IdempotencyFilter;
+import com.packhub.product.domain.service.ProductEventStream;
+import com.packhub.product.domain.service.ProductListCache;
 import com.packhub.product.domain.service.ProductService;
 import com.packhub.product.dto.CreateProductDTO;
+import com.packhub.product.dto.ImageStatusDTO;
+import com.packhub.product.dto.ProductChangesDTO;
+import com.packhub.product.dto.ProductDTO;
+import com.packhub.product.dto.ProductListVersionDTO;
+import com.packhub.product.dto.ProductPageDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {ProductController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED,
+        IdempotencyFilter.REPLAYED_HEADER})
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/products")
 public class ProductController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private ProductService productService;
 
     @Autowired
     private ObjectMapper objectMapper;
 
-    @Operation(summary = "Criar novo produto com imagem")
+    @Autowired
+    private ProductListCache productListCache;
+
+    @Autowired
+    private ProductEventStream productEventStream;
+
+    @Operation(summary = "Criar novo produto com galeria de imagens",
+            description = "Cada parte image é uma imagem da galeria, na ordem de exibição; a primeira é a principal. "
+                    + "Com o header Idempotency-Key, a retentativa de um cadastro já concluído recebe a resposta "
+                    + "original")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Produto criado com sucesso"),
-            @ApiResponse(responseCode = "400", description = "Dados inválidos ou imagem ausente")
+            @ApiResponse(responseCode = "400", description = "Dados inválidos, imagem ausente ou imagens demais"),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em processamento")
     })
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Product> create(
-            @RequestParam("image") MultipartFile image,
+    public ResponseEntity<ProductDTO> create(
+            @RequestParam("image") List<MultipartFile> images,
             @RequestParam("data") String jsonData
     ) throws JsonProcessingException {
         CreateProductDTO dto = objectMapper.readValue(jsonData, CreateProductDTO.class);
-        Product product = productService.createProduct(dto, image);
+        ProductDTO product = productService.createProduct(dto, images);
         return ResponseEntity.status(HttpStatus.CREATED).body(product);
     }
 
-    @Operation(summary = "Listar todos os produtos")
+    @Operation(summary = "Criar vários produtos de uma vez",
+            description = "O campo data é um array JSON de produtos e as partes image, como no cadastro avulso, "
+                    + "trazem uma imagem por produto, na mesma ordem")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Produtos criados com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos, imagens faltando ou lote grande demais")
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<ProductDTO>> createBulk(
+            @RequestParam("image") List<MultipartFile> images,
+            @RequestParam("data") String jsonData
+    ) throws JsonProcessingException {
+        List<CreateProductDTO> dtos = objectMapper.readValue(jsonData, new TypeReference<List<CreateProductDTO>>() {});
+        List<ProductDTO> products = productService.createProducts(dtos, images);
+        return ResponseEntity.status(HttpStatus.CREATED).body(products);
+    }
+
+    @Operation(summary = "Listar produtos paginados por cursor",
+            description = "A próxima página é indicada pelo header X-Next-Cursor, ausente na última página")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de produtos retornada"),
-            @ApiResponse(responseCode = "204", description = "Nenhum produto encontrado")
+            @ApiResponse(responseCode = "204", description = "Nenhum produto encontrado"),
+            @ApiResponse(responseCode = "400", description = "Cursor, faixa de preço ou ordenação inválidos")
     })
     @GetMapping
-    public ResponseEntity<List<Product>> getProducts() {
-        List<Product> products = this.productService.getProducts();
+    public ResponseEntity<List<ProductDTO>> getProducts(
+            @Parameter(description = "Token de continuação retornado em X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Preço mínimo (inclusive)", example = "10.0")
+            @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Preço máximo (inclusive)", example = "100.0")
+            @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Ordenação: createdAt (padrão) ou price", example = "price")
+            @RequestParam(required = false) String sort
+    ) {
+        ProductPageDTO page = this.productService.getProducts(cursor, size, minPrice, maxPrice, sort);
+        return page.getItems().isEmpty()
+                ? ResponseEntity.noContent().build()
+                : pageResponse(page);
+    }
+
+    @Operation(summary = "Buscar produtos pelo nome",
+            description = "Aceita prefixos e pequenos erros de digitação; ordena por relevância e, no empate, pelos mais recentes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Produtos encontrados"),
+            @ApiResponse(responseCode = "204", description = "Nenhum produto encontrado"),
+            @ApiResponse(responseCode = "400", description = "Termo de busca ausente")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDTO>> search(
+            @Parameter(description = "Termo de busca", example = "camis")
+            @RequestParam("q") String query,
+            @Parameter(description = "Quantidade máxima de resultados (máximo 50)", example = "20")
+            @RequestParam(required = false) Integer limit
+    ) {
+        List<ProductDTO> products = productService.searchProducts(query, limit);
         return products.isEmpty()
                 ? ResponseEntity.noContent().build()
                 : ResponseEntity.ok(products);
     }
 
-    @Operation(summary = "Listar produtos por código do usuário")
+    @Operation(summary = "Sincronizar mudanças desde o último token",
+            description = "Sem since devolve o catálogo inteiro em páginas; depois, só os produtos criados ou " +
+                    "alterados e os ids excluídos desde o token. Aplique updated antes de deleted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Mudanças retornadas, com o token da próxima chamada"),
+            @ApiResponse(responseCode = "400", description = "Token inválido"),
+            @ApiResponse(responseCode = "410", description = "Token mais antigo que a retenção das exclusões; refaça a sincronização completa")
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDTO> getChanges(
+            @Parameter(description = "Token retornado em nextToken pela chamada anterior")
+            @RequestParam(required = false) String since,
+            @Parameter(description = "Máximo de produtos e de exclusões por chamada (máximo 500)", example = "100")
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(productService.getChanges(since, size));
+    }
+
+    @Operation(summary = "Receber as mudanças de produtos em tempo real (Server-Sent Events)",
+            description = "Eventos CREATED, UPDATED e DELETED com o produto em JSON; com userCode, só os desse usuário. " +
+                    "Eventos perdidos numa reconexão podem ser recuperados em /products/changes")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Produtos do usuário retornados com sucesso"),
+            @ApiResponse(responseCode = "200", description = "Stream aberto"),
+            @ApiResponse(responseCode = "503", description = "Limite de conexões do nó atingido")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @Parameter(description = "Código do usuário cujos produtos devem ser acompanhados", example = "abc123")
+            @RequestParam(required = false) String userCode
+    ) {
+        return productEventStream.subscribe(userCode);
+    }
+
+    @Operation(summary = "Exportar todo o catálogo em NDJSON",
+            description = "Transmite um produto por linha, sem carregar a tabela inteira em memória")
+    @ApiResponse(responseCode = "200", description = "Catálogo transmitido")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportProducts(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        productService.exportProducts(response.getOutputStream());
+    }
+
+    @Operation(summary = "Listar produtos por código do usuário",
+            description = "Responde 304 sem corpo quando If-None-Match ou If-Modified-Since indicam que a lista não mudou")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Produtos do usuário retornados com sucesso",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class)))),
+            @ApiResponse(responseCode = "304", description = "A lista não mudou desde a ETag ou data informada"),
             @ApiResponse(responseCode = "404", description = "Nenhum produto encontrado para o usuário")
     })
-    @GetMapping("/user/{userCode}")
-    public ResponseEntity<List<Product>> getProductsByUserCode(
+    @GetMapping(value = "/user/{userCode}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getProductsByUserCode(
             @Parameter(description = "Código único do usuário", example = "abc123")
-            @PathVariable String userCode
+            @PathVariable String userCode,
+            @Parameter(description = "Token de continuação retornado em X-Next-Cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer size,
+            WebRequest request
     ) {
-        List<Product> products = productService.getProductsByUserCode(userCode);
-        return products.isEmpty()
-                ? ResponseEntity.notFound().build()
-                : ResponseEntity.ok(products);
+        // A validação vem antes da página: uma lista inalterada não é consultada nem serializada.
+        ProductListVersionDTO version = productListCache.version(userCode, () -> productService.getListVersion(userCode));
+        if (version.getCount() == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        Instant modified = version.getLastModified().atZone(ZoneId.systemDefault()).toInstant();
+        String etag = listEtagOf(version.getCount(), modified);
+        if (request.checkNotModified(etag, modified.toEpochMilli())) {
+            return null;
+        }
+
+        ProductListCache.CachedPage page = productListCache.get(userCode, cursor, size,
+                () -> productService.getProductsByUserCode(userCode, cursor, size));
+        if (page.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .lastModified(modified);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBody());
+    }
+
+    @Operation(summary = "Consultar a situação do upload da imagem do produto",
+            description = "Com upload assíncrono a imagem fica PENDING até o envio terminar (READY ou FAILED)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação retornada"),
+            @ApiResponse(responseCode = "404", description = "Produto não encontrado")
+    })
+    @GetMapping("/{id}/image")
+    public ResponseEntity<ImageStatusDTO> getImageStatus(
+            @Parameter(description = "ID do produto", example = "1")
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.ok(productService.getImageStatus(id));
+    }
+
+    @Operation(summary = "Buscar produto por ID",
+            description = "A ETag da resposta é a versão do produto, para uso no If-Match do PUT")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Produto encontrado"),
+            @ApiResponse(responseCode = "404", description = "Produto não encontrado")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductDTO> getProduct(
+            @Parameter(description = "ID do produto", example = "1")
+            @PathVariable Long id
+    ) {
+        ProductDTO product = productService.getProduct(id);
+        return ResponseEntity.ok().eTag(etagOf(product)).body(product);
     }
 
-    @Operation(summary = "Atualizar produto com nova imagem")
+    @Operation(summary = "Atualizar produto e, opcionalmente, a galeria de imagens",
+            description = "Partes image substituem a galeria inteira. "
+                    + "Com If-Match a atualização só acontece se o produto ainda estiver na versão informada")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Produto atualizado com sucesso"),
             @ApiResponse(responseCode = "400", description = "Dados inválidos"),
-            @ApiResponse(responseCode = "404", description = "Produto não encontrado")
+            @ApiResponse(responseCode = "403", description = "Acesso negado"),
+            @ApiResponse(responseCode = "404", description = "Produto não encontrado"),
+            @ApiResponse(responseCode = "412", description = "O produto mudou desde a versão do If-Match")
     })
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Product> update(
+    public ResponseEntity<ProductDTO> update(
             @Parameter(description = "ID do produto", example = "1")
             @PathVariable Long id,
-            @RequestParam(value = "image", required = false) MultipartFile image,
+            @Parameter(description = "ETag retornada pelo GET ou PUT anterior", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestParam(value = "image", required = false) List<MultipartFile> images,
             @RequestParam("data") String jsonData
     ) throws JsonProcessingException {
         CreateProductDTO dto = objectMapper.readValue(jsonData, CreateProductDTO.class);
-        Product updated = productService.updateProduct(id, dto, image);
-        return ResponseEntity.ok(updated);
+        ProductDTO updated = productService.updateProduct(id, dto, images, versionFrom(ifMatch));
+        return ResponseEntity.ok().eTag(etagOf(updated)).body(updated);
     }
 
     @Operation(summary = "Deletar produto por ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Produto deletado com sucesso"),
             @ApiResponse(responseCode = "403", description = "Acesso negado"),
-            @ApiResponse(responseCode = "404", description = "Produto não encontrado")
+            @ApiResponse(responseCode = "404", description = "Produto não encontrado"),
+            @ApiResponse(responseCode = "412", description = "Produto alterado por outra requisição durante a exclusão")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(
@@ -107,4 +298,40 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static String etagOf(ProductDTO product) {
+        return "\"" + product.getVersion() + "\"";
+    }
+
+    // Fraca: identifica o estado da lista, não os bytes de uma página específica.
+    private static String listEtagOf(long count, Instant modified) {
+        return "W/\"" + count + "-" + Long.toHexString(ChronoUnit.MICROS.between(Instant.EPOCH, modified)) + "\"";
+    }
+
+    // Aceita "3"; "*" só exige que o produto exista. If-Match usa comparação forte: W/"3" nunca confere (RFC 9110).
+    private static Long versionFrom(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match exige uma ETag forte");
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "ETag inválida no header If-Match");
+        }
+    }
+
+    private ResponseEntity<List<ProductDTO>> pageResponse(ProductPageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
 }
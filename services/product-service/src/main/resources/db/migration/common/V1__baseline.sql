@@ -0,0 +1,27 @@
+-- Esquema que o Hibernate criava com ddl-auto=update. Idempotente para rodar sobre bancos já existentes
+-- (baseline-version=0), inclusive os criados antes das colunas image_status e version.
+
+CREATE TABLE IF NOT EXISTS products (
+    id           BIGINT           NOT NULL PRIMARY KEY,
+    name         VARCHAR(255),
+    price        DOUBLE PRECISION NOT NULL,
+    image_url    VARCHAR(255),
+    image_status VARCHAR(255),
+    user_code    VARCHAR(255)     NOT NULL,
+    created_at   TIMESTAMP(6)     NOT NULL,
+    updated_at   TIMESTAMP(6)     NOT NULL,
+    version      BIGINT           DEFAULT 0 NOT NULL
+);
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS image_status VARCHAR(255);
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE SEQUENCE IF NOT EXISTS product_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS image_assets (
+    hash         VARCHAR(64)  NOT NULL PRIMARY KEY,
+    url          VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    size         BIGINT,
+    created_at   TIMESTAMP(6) NOT NULL
+);
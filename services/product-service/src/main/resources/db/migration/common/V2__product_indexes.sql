@@ -0,0 +1,13 @@
+-- Índices das listagens paginadas por cursor. O id entra por último em todos como desempate do keyset.
+
+-- GET /products ordenado por data
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products (created_at, id);
+
+-- GET /products/user/{userCode}
+CREATE INDEX IF NOT EXISTS idx_products_user_code_created_at_id ON products (user_code, created_at, id);
+
+-- Faixa de preço de um usuário
+CREATE INDEX IF NOT EXISTS idx_products_user_code_price ON products (user_code, price, id);
+
+-- GET /products?minPrice=&maxPrice=&sort=price
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, id);
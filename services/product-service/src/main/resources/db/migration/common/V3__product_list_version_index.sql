@@ -0,0 +1,2 @@
+-- Validador das listas por usuário (MAX(updated_at) e COUNT) resolvido só pelo índice.
+CREATE INDEX IF NOT EXISTS idx_products_user_code_updated_at ON products (user_code, updated_at);
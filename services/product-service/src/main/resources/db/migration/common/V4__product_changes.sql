@@ -0,0 +1,11 @@
+-- Sincronização incremental (GET /products/changes): produtos alterados em ordem de (updated_at, id)
+-- e registros de exclusão, mantidos só pelo período de retenção.
+CREATE INDEX IF NOT EXISTS idx_products_updated_at_id ON products (updated_at, id);
+
+CREATE TABLE IF NOT EXISTS product_tombstones (
+    product_id BIGINT       NOT NULL PRIMARY KEY,
+    user_code  VARCHAR(255) NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_tombstones_deleted_at ON product_tombstones (deleted_at, product_id);
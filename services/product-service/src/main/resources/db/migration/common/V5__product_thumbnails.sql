@@ -0,0 +1,5 @@
+-- Miniatura gerada no upload, guardada ao lado da imagem principal. Linhas antigas ficam nulas e a API
+-- devolve a imagem principal no lugar.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(255);
+
+ALTER TABLE image_assets ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(255);
@@ -0,0 +1,13 @@
+-- Galeria de imagens dos produtos, em ordem de exibição (a primeira é também a imagem principal em products).
+-- Produtos anteriores à galeria não têm linhas aqui e expõem só a imagem principal.
+CREATE SEQUENCE IF NOT EXISTS product_image_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS product_images (
+    id            BIGINT       NOT NULL PRIMARY KEY,
+    product_id    BIGINT       NOT NULL,
+    position      INTEGER      NOT NULL,
+    url           VARCHAR(255) NOT NULL,
+    thumbnail_url VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_images_product_id_position ON product_images (product_id, position);
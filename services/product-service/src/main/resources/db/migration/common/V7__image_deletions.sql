@@ -0,0 +1,22 @@
+-- Imagens que deixaram de ser usadas por um produto (galeria trocada ou produto excluído), gravadas na mesma
+-- transação da alteração e apagadas do storage em lote pelo ImageGarbageCollector.
+CREATE SEQUENCE IF NOT EXISTS image_deletion_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS image_deletions (
+    id              BIGINT       NOT NULL PRIMARY KEY,
+    url             VARCHAR(255) NOT NULL,
+    thumbnail_url   VARCHAR(255),
+    created_at      TIMESTAMP(6) NOT NULL,
+    unindexed_at    TIMESTAMP(6),
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    attempts        INTEGER      NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_image_deletions_next_attempt_at ON image_deletions (next_attempt_at, id);
+
+-- Antes de apagar, o coletor confere se outro produto ainda usa a URL (uploads de conteúdo repetido a reaproveitam).
+CREATE INDEX IF NOT EXISTS idx_products_image_url ON products (image_url);
+CREATE INDEX IF NOT EXISTS idx_product_images_url ON product_images (url);
+
+-- No shard padrão, onde fica IMAGE_ASSETS: a URL sai do índice de deduplicação antes de ser apagada.
+CREATE INDEX IF NOT EXISTS idx_image_assets_url ON image_assets (url);
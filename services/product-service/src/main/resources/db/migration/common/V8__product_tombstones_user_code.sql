@@ -0,0 +1,2 @@
+-- A última exclusão do usuário também avança o validador da lista (MAX(deleted_at)), resolvido só pelo índice.
+CREATE INDEX IF NOT EXISTS idx_product_tombstones_user_code_deleted_at ON product_tombstones (user_code, deleted_at);
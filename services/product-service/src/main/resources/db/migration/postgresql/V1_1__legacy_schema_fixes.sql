@@ -0,0 +1,4 @@
+-- Bancos antigos tinham image_url obrigatória e ids gerados fora da sequência product_seq.
+ALTER TABLE products ALTER COLUMN image_url DROP NOT NULL;
+
+SELECT setval('product_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM products), 1));
@@ -0,0 +1,190 @@
+package com.packhub.product.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartHttpServletRequest;
+import org.springframework.mock.web.MockPart;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyFilterTest {
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(List.of("/products"), DataSize.ofMegabytes(1),
+            Duration.ofHours(1), Duration.ofMinutes(2), new ObjectMapper());
+    private final AtomicInteger calls = new AtomicInteger();
+
+    // Simula o controller: cada execução cria um produto com id novo.
+    private final FilterChain create = (request, response) -> {
+        int id = calls.incrementAndGet();
+        ((HttpServletResponse) response).setStatus(201);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"id\":" + id + "}");
+    };
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Retentativa com a mesma chave deve receber a resposta original sem repetir o cadastro")
+    void shouldReplayStoredResponse() throws Exception {
+        MockHttpServletResponse first = perform("chave-1", "corpo", create);
+        MockHttpServletResponse retry = perform("chave-1", "corpo", create);
+
+        assertEquals(1, calls.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals(first.getContentType(), retry.getContentType());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Sem a chave cada requisição deve ser processada")
+    void shouldIgnoreRequestsWithoutKey() throws Exception {
+        perform(null, "corpo", create);
+        perform(null, "corpo", create);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Mesma chave com outro corpo, mesmo que do mesmo tamanho, deve receber 422")
+    void shouldRejectKeyReusedWithDifferentBody() throws Exception {
+        perform("chave-1", "corpo", create);
+
+        assertEquals(422, perform("chave-1", "copro", create).getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("No multipart deve comparar o conteúdo das partes e deixá-las legíveis para o controller")
+    void shouldFingerprintMultipartParts() throws Exception {
+        FilterChain upload = (request, response) -> {
+            assertEquals(3, ((HttpServletRequest) request).getPart("image").getInputStream().readAllBytes().length);
+            create.doFilter(request, response);
+        };
+
+        assertEquals(201, performMultipart("chave-1", new byte[]{1, 2, 3}, upload).getStatus());
+        assertEquals("true", performMultipart("chave-1", new byte[]{1, 2, 3}, upload)
+                .getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(422, performMultipart("chave-1", new byte[]{3, 2, 1}, upload).getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("O corpo lido para o hash deve continuar disponível para o controller")
+    void shouldKeepBodyReadable() throws Exception {
+        FilterChain echo = (request, response) -> {
+            assertEquals("corpo", new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            create.doFilter(request, response);
+        };
+
+        assertEquals(201, perform("chave-1", "corpo", echo).getStatus());
+    }
+
+    @Test
+    @DisplayName("Repetição enquanto a primeira ainda roda deve receber 409")
+    void shouldRejectWhileInFlight() throws Exception {
+        MockHttpServletResponse[] concurrent = new MockHttpServletResponse[1];
+        FilterChain slow = (request, response) -> {
+            concurrent[0] = perform("chave-1", "corpo", create);
+            create.doFilter(request, response);
+        };
+
+        assertEquals(201, perform("chave-1", "corpo", slow).getStatus());
+        assertEquals(409, concurrent[0].getStatus());
+        assertEquals("1", concurrent[0].getHeader("Retry-After"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Resposta 5xx não deve ser guardada, para que a retentativa refaça o trabalho")
+    void shouldNotStoreServerErrors() throws Exception {
+        FilterChain failing = (request, response) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(502);
+        };
+
+        perform("chave-1", "corpo", failing);
+        assertEquals(201, perform("chave-1", "corpo", create).getStatus());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("A mesma chave enviada por usuários diferentes não deve ser compartilhada")
+    void shouldScopeKeysByUser() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user-1", null, "ROLE_USER"));
+        perform("chave-1", "corpo", create);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user-2", null, "ROLE_USER"));
+        perform("chave-1", "corpo", create);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Requisições anônimas de clientes diferentes não devem compartilhar a chave")
+    void shouldScopeAnonymousKeysByClient() throws Exception {
+        // Como o AnonymousAuthenticationFilter do Spring Security deixa no contexto.
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("chave",
+                "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        perform("chave-1", "corpo", create, "10.0.0.1");
+        MockHttpServletResponse other = perform("chave-1", "corpo", create, "10.0.0.2");
+
+        assertNull(other.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, calls.get());
+    }
+
+    private MockHttpServletResponse perform(String key, String body, FilterChain chain)
+            throws ServletException, IOException {
+        return perform(key, body, chain, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse performMultipart(String key, byte[] image, FilterChain chain)
+            throws ServletException, IOException {
+        MockMultipartHttpServletRequest request = new MockMultipartHttpServletRequest();
+        request.setRequestURI("/products");
+        request.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=x");
+        request.addPart(new MockPart("product", "{\"name\":\"Produto\"}".getBytes(StandardCharsets.UTF_8)));
+        request.addPart(new MockPart("image", "image.jpg", image));
+        request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse perform(String key, String body, FilterChain chain, String clientAddress)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/products");
+        request.setRemoteAddr(clientAddress);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
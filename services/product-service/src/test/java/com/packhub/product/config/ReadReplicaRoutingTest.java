@@ -0,0 +1,104 @@
+package com.packhub.product.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Primário e réplica são dois bancos H2 em memória; cada um responde com o próprio nome.
+ */
+class ReadReplicaRoutingTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @Test
+    @DisplayName("Transação somente leitura deve ler da réplica e as demais do primário")
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        ReplicaLagMonitor monitor = monitor("SELECT 0");
+        JdbcTemplate jdbc = new JdbcTemplate(ReadReplicaConfig.routing(primary, replica, monitor, meterRegistry));
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+
+        assertEquals("replica", readOnly(transactions).execute(status -> whoAmI(jdbc)));
+        assertEquals("primary", transactions.execute(status -> whoAmI(jdbc)));
+        assertEquals(1.0, meterRegistry.get("product.datasource.reads").tag("pool", "replica").counter().count());
+    }
+
+    @Test
+    @DisplayName("Réplica atrasada além do limite deve devolver as leituras ao primário")
+    void shouldFallBackToPrimaryWhenReplicaLags() {
+        ReplicaLagMonitor monitor = monitor("SELECT 30");
+        JdbcTemplate jdbc = new JdbcTemplate(ReadReplicaConfig.routing(primary, replica, monitor, meterRegistry));
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+
+        assertFalse(monitor.isUsable());
+        assertEquals(30.0, monitor.getLagSeconds());
+        assertEquals("primary", readOnly(transactions).execute(status -> whoAmI(jdbc)));
+        assertEquals(1.0, meterRegistry.get("product.datasource.reads").tag("pool", "primary").counter().count());
+    }
+
+    @Test
+    @DisplayName("Falha ao consultar a réplica deve devolver as leituras ao primário")
+    void shouldFallBackToPrimaryWhenLagQueryFails() {
+        ReplicaLagMonitor monitor = monitor("SELECT lag FROM tabela_inexistente");
+        JdbcTemplate jdbc = new JdbcTemplate(ReadReplicaConfig.routing(primary, replica, monitor, meterRegistry));
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+
+        assertEquals("primary", readOnly(transactions).execute(status -> whoAmI(jdbc)));
+    }
+
+    @Test
+    @DisplayName("Transação somente leitura dentro de PrimaryReads deve ler do primário")
+    void shouldRouteForcedReadsToPrimary() {
+        ReplicaLagMonitor monitor = monitor("SELECT 0");
+        JdbcTemplate jdbc = new JdbcTemplate(ReadReplicaConfig.routing(primary, replica, monitor, meterRegistry));
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+
+        assertEquals("primary", PrimaryReads.call(() -> readOnly(transactions).execute(status -> whoAmI(jdbc))));
+        assertEquals("replica", readOnly(transactions).execute(status -> whoAmI(jdbc)));
+    }
+
+    private ReplicaLagMonitor monitor(String lagQuery) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, lagQuery, Duration.ofSeconds(10), meterRegistry);
+        monitor.check();
+        return monitor;
+    }
+
+    private static TransactionTemplate readOnly(TransactionTemplate template) {
+        TransactionTemplate readOnly = new TransactionTemplate(template.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+
+    private static String whoAmI(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(20))");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
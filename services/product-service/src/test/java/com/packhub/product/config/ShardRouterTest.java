@@ -0,0 +1,63 @@
+package com.packhub.product.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRouterTest {
+
+    private static final List<String> USERS = IntStream.range(0, 10_000).mapToObj(i -> "user-" + i).toList();
+
+    @Test
+    @DisplayName("Deve distribuir os usuários de forma equilibrada entre os shards")
+    void shouldSpreadUsersEvenly() {
+        ShardRouter router = new ShardRouter(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 160);
+
+        Map<String, Integer> counts = new HashMap<>();
+        USERS.forEach(user -> counts.merge(router.shardFor(user), 1, Integer::sum));
+
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 2_000 && count < 3_000, "shard com " + count + " usuários"));
+    }
+
+    @Test
+    @DisplayName("Ao incluir um shard só devem mudar os usuários que passam para ele")
+    void shouldOnlyMoveUsersToTheNewShard() {
+        ShardRouter before = new ShardRouter(List.of("shard-0", "shard-1", "shard-2"), 160);
+        ShardRouter after = new ShardRouter(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 160);
+
+        long moved = 0;
+        for (String user : USERS) {
+            String owner = after.shardFor(user);
+            if (!owner.equals(before.shardFor(user))) {
+                assertEquals("shard-3", owner);
+                moved++;
+            }
+        }
+        // Perto de 1/4 dos usuários, e não a maioria como em hash % n.
+        assertTrue(moved > 1_500 && moved < 3_500, moved + " usuários movidos");
+    }
+
+    @Test
+    @DisplayName("O dono de um usuário não deve depender da ordem dos shards na configuração")
+    void shouldNotDependOnShardOrder() {
+        ShardRouter router = new ShardRouter(List.of("shard-0", "shard-1", "shard-2"), 160);
+        ShardRouter reordered = new ShardRouter(List.of("shard-2", "shard-0", "shard-1"), 160);
+
+        USERS.forEach(user -> assertEquals(router.shardFor(user), reordered.shardFor(user)));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar nomes de shard repetidos")
+    void shouldRejectDuplicateShards() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(List.of("shard-0", "shard-0"), 160));
+    }
+}
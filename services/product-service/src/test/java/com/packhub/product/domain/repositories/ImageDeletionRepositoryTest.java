@@ -0,0 +1,43 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.domain.entities.ImageDeletion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class ImageDeletionRepositoryTest {
+
+    @Autowired
+    private ImageDeletionRepository repository;
+
+    @Test
+    @DisplayName("Deve trazer só os registros vencidos, os mais antigos primeiro, até o tamanho do lote")
+    void shouldFindDueInOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        repository.saveAll(List.of(
+                deletion("b.jpg", now.minusMinutes(1)),
+                deletion("futura.jpg", now.plusMinutes(10)),
+                deletion("a.jpg", now.minusMinutes(5)),
+                deletion("c.jpg", now)));
+
+        List<ImageDeletion> due = repository.findDue(now, PageRequest.of(0, 2));
+
+        assertEquals(List.of("a.jpg", "b.jpg"), due.stream().map(ImageDeletion::getUrl).toList());
+    }
+
+    private static ImageDeletion deletion(String url, LocalDateTime nextAttemptAt) {
+        return ImageDeletion.builder()
+                .url(url)
+                .createdAt(nextAttemptAt.minusMinutes(15))
+                .nextAttemptAt(nextAttemptAt)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.domain.entities.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara a vazão de 10 mil INSERTs feitos um a um (um {@code save} por requisição, como no
+ * {@code POST /products}) com {@code saveAll} em lotes, como no {@code POST /products/bulk}.
+ * Rodar com {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductBulkInsertBenchmarkTest {
+
+    private static final int ROWS = 10_000;
+    private static final int BULK_SIZE = 200;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("saveAll em lote usa JDBC batch e grava mais linhas por segundo que saves individuais")
+    void compareSingleAndBulkInserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            repository.save(product(i));
+        }
+        long single = System.nanoTime() - start;
+        long singleStatements = statistics.getPrepareStatementCount();
+        assertEquals(ROWS, repository.count());
+        repository.deleteAllInBatch();
+
+        statistics.clear();
+        start = System.nanoTime();
+        for (int from = 0; from < ROWS; from += BULK_SIZE) {
+            List<Product> chunk = new ArrayList<>(BULK_SIZE);
+            for (int i = from; i < from + BULK_SIZE; i++) {
+                chunk.add(product(i));
+            }
+            repository.saveAll(chunk);
+        }
+        long bulk = System.nanoTime() - start;
+        long bulkStatements = statistics.getPrepareStatementCount();
+        assertEquals(ROWS, repository.count());
+
+        System.out.printf("single : %,d rows/s, %,d statements%n", rowsPerSecond(single), singleStatements);
+        System.out.printf("bulk   : %,d rows/s, %,d statements%n", rowsPerSecond(bulk), bulkStatements);
+
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        assertTrue(bulkStatements < singleStatements,
+                "lote preparou " + bulkStatements + " statements contra " + singleStatements);
+    }
+
+    private static Product product(int i) {
+        Product product = new Product();
+        product.setName("Produto " + i);
+        product.setPrice(10.0 + i);
+        product.setImageUrl("https://img.example/" + i + ".jpg");
+        product.setUserCode("user-" + (i % 50));
+        return product;
+    }
+
+    private static long rowsPerSecond(long nanos) {
+        return ROWS * 1_000_000_000L / Math.max(nanos, 1);
+    }
+}
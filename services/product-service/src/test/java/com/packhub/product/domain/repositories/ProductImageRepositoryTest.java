@@ -0,0 +1,63 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.domain.entities.ProductImage;
+import com.packhub.product.dto.ProductImageDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class ProductImageRepositoryTest {
+
+    @Autowired
+    private ProductImageRepository repository;
+
+    @Test
+    @DisplayName("Deve trazer as galerias de vários produtos em uma consulta, na ordem de exibição")
+    void shouldLoadGalleriesOrderedByPosition() {
+        repository.saveAll(List.of(
+                image(2L, 1, "b1.jpg", null),
+                image(1L, 0, "a0.jpg", "a0-mini.jpg"),
+                image(2L, 0, "b0.jpg", "b0-mini.jpg"),
+                image(3L, 0, "c0.jpg", "c0-mini.jpg")));
+
+        List<ProductImageDTO> images = repository.findDtosByProductIdIn(List.of(1L, 2L));
+
+        assertEquals(List.of("a0.jpg", "b0.jpg", "b1.jpg"), images.stream().map(ProductImageDTO::getUrl).toList());
+        // Sem miniatura, a própria imagem faz o papel dela.
+        assertEquals("b1.jpg", images.get(2).getThumbnailUrl());
+    }
+
+    @Test
+    @DisplayName("Deve apagar só a galeria do produto informado")
+    void shouldDeleteGalleryOfProduct() {
+        repository.saveAll(List.of(image(1L, 0, "a0.jpg", null), image(1L, 1, "a1.jpg", null),
+                image(2L, 0, "b0.jpg", null)));
+
+        assertEquals(2, repository.deleteByProductId(1L));
+        assertEquals(List.of(2L), repository.findAll().stream().map(ProductImage::getProductId).toList());
+    }
+
+    @Test
+    @DisplayName("Deve dizer quais URLs ainda estão em alguma galeria")
+    void shouldFindUrlsStillInUse() {
+        repository.saveAll(List.of(image(1L, 0, "a0.jpg", null), image(2L, 0, "a0.jpg", null),
+                image(2L, 1, "b1.jpg", null)));
+
+        assertEquals(List.of("a0.jpg"), repository.findUrlsIn(List.of("a0.jpg", "c0.jpg")));
+    }
+
+    private static ProductImage image(Long productId, int position, String url, String thumbnailUrl) {
+        return ProductImage.builder()
+                .productId(productId)
+                .position(position)
+                .url(url)
+                .thumbnailUrl(thumbnailUrl)
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.domain.entities.Product;
+import com.packhub.product.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Roda as migrations do Flyway no H2 e confere os filtros e a paginação da consulta dinâmica.
+ */
+@DataJpaTest
+class ProductQueryRepositoryTest {
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void seed() {
+        ids = List.of(
+                persist("A", 30.0, "u1"),
+                persist("B", 10.0, "u2"),
+                persist("C", 20.0, "u1"),
+                persist("D", 10.0, "u1"),
+                persist("E", 50.0, "u2"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Deve filtrar por faixa de preço e ordenar por (preço, id)")
+    void shouldFilterByPriceRangeOrderedByPrice() {
+        List<ProductDTO> page = repository.findPage(ProductQuery.builder()
+                .minPrice(10.0).maxPrice(30.0).sort(ProductSort.PRICE).build(), 10);
+
+        assertEquals(List.of(ids.get(1), ids.get(3), ids.get(2), ids.get(0)), page.stream().map(ProductDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Deve continuar depois do cursor por preço, desempatando pelo id")
+    void shouldContinueAfterPriceCursor() {
+        ProductDTO first = repository.findPage(ProductQuery.builder().sort(ProductSort.PRICE).build(), 1).get(0);
+
+        List<ProductDTO> next = repository.findPage(ProductQuery.builder()
+                .sort(ProductSort.PRICE)
+                .afterPrice(first.getPrice())
+                .afterId(first.getId())
+                .build(), 2);
+
+        assertEquals(List.of(ids.get(3), ids.get(2)), next.stream().map(ProductDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Deve combinar usuário e preço máximo")
+    void shouldFilterByUserAndMaxPrice() {
+        List<ProductDTO> page = repository.findPage(ProductQuery.builder()
+                .userCode("u1").maxPrice(25.0).sort(ProductSort.PRICE).build(), 10);
+
+        assertEquals(List.of(ids.get(3), ids.get(2)), page.stream().map(ProductDTO::getId).toList());
+    }
+
+    private Long persist(String name, double price, String userCode) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setUserCode(userCode);
+        return entityManager.persistAndGetId(product, Long.class);
+    }
+}
@@ -0,0 +1,110 @@
+package com.packhub.product.domain.repositories;
+
+import com.packhub.product.domain.entities.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara alocação e latência por requisição entre a leitura de entidades gerenciadas e a projeção em DTO.
+ * Rodar com {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+class ProductReadPathBenchmarkTest {
+
+    private static final int ROWS = 5_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 300;
+    private static final int ITERATIONS = 2_000;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        entityManager = testEntityManager.getEntityManager();
+        for (int i = 0; i < ROWS; i++) {
+            Product product = new Product();
+            product.setName("Produto " + i);
+            product.setPrice(10.0 + i);
+            product.setImageUrl("https://img.example/" + i + ".jpg");
+            product.setUserCode("user-" + (i % 50));
+            entityManager.persist(product);
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Projeção em DTO não popula o contexto de persistência e aloca menos por requisição")
+    void compareEntityAndProjectionReadPaths() {
+        Pageable page = PageRequest.of(0, PAGE_SIZE);
+        Supplier<List<?>> entityPath = () -> entityManager
+                .createQuery("SELECT p FROM Product p ORDER BY p.createdAt ASC, p.id ASC", Product.class)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+        Supplier<List<?>> projectionPath = () -> repository.findFirstPage(page);
+
+        Measurement entity = measure(entityPath);
+        Measurement projection = measure(projectionPath);
+
+        System.out.printf("entity     : %,d bytes/req, %,d ns/req%n", entity.bytesPerRequest(), entity.nanosPerRequest());
+        System.out.printf("projection : %,d bytes/req, %,d ns/req%n", projection.bytesPerRequest(), projection.nanosPerRequest());
+
+        Session session = entityManager.unwrap(Session.class);
+        entityPath.get();
+        assertEquals(PAGE_SIZE, session.getStatistics().getEntityCount());
+        entityManager.clear();
+        projectionPath.get();
+        assertEquals(0, session.getStatistics().getEntityCount());
+    }
+
+    private Measurement measure(Supplier<List<?>> request) {
+        for (int i = 0; i < WARMUP; i++) {
+            request.get();
+            entityManager.clear();
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            request.get();
+            entityManager.clear();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        return new Measurement(allocated / ITERATIONS, elapsed / ITERATIONS);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private record Measurement(long bytesPerRequest, long nanosPerRequest) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.packhub.product.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Servidor HTTP local no lugar da API do Cloudinary.
+ */
+class CloudinaryHttpStorageTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+
+    private final ConcurrentLinkedQueue<String> bodies = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> deletions = new ConcurrentLinkedQueue<>();
+    private HttpServer server;
+    private Consumer<HttpExchange> handler;
+    private CloudinaryHttpStorage storage;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(64));
+        server.createContext("/v1_1/demo/image/upload", exchange -> {
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1));
+            handler.accept(exchange);
+        });
+        server.createContext("/v1_1/demo/resources/image/upload", exchange -> {
+            deletions.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getRawQuery() + " "
+                    + exchange.getRequestHeaders().getFirst("Authorization"));
+            respond(exchange, 200, "{\"deleted\":{},\"partial\":false}");
+        });
+        server.start();
+        storage = new CloudinaryHttpStorage(
+                URI.create("http://localhost:" + server.getAddress().getPort() + "/v1_1/demo/image/upload"),
+                "chave", "segredo", Duration.ofSeconds(2), Duration.ofSeconds(5), 2, new ObjectMapper(),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        file = Files.write(Files.createTempFile("upload-", ".jpg"), new byte[]{(byte) 0xFF, (byte) 0xD8, 1, 2, 3});
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        storage.destroy();
+        server.stop(0);
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @DisplayName("Deve enviar o arquivo assinado em multipart e devolver a secure_url")
+    void shouldUploadSignedMultipart() throws Exception {
+        handler = exchange -> respond(exchange, 200, "{\"secure_url\":\"https://res.cloudinary.com/demo/a.jpg\"}");
+
+        String url = storage.store(new SpooledImage(file, 5, "image/jpeg", "ab"));
+
+        assertEquals("https://res.cloudinary.com/demo/a.jpg", url);
+        String body = bodies.poll();
+        String timestamp = String.valueOf(NOW.getEpochSecond());
+        assertTrue(body.contains("name=\"api_key\"\r\n\r\nchave\r\n"));
+        assertTrue(body.contains("name=\"timestamp\"\r\n\r\n" + timestamp + "\r\n"));
+        assertTrue(body.contains("name=\"signature\"\r\n\r\n" + sha1("timestamp=" + timestamp + "segredo") + "\r\n"));
+        assertTrue(body.contains("Content-Type: image/jpeg\r\n\r\nÿØ\u0001\u0002\u0003\r\n--"));
+    }
+
+    @Test
+    @DisplayName("Erro da API deve falhar o upload com a mensagem devolvida")
+    void shouldFailOnApiError() {
+        handler = exchange -> respond(exchange, 401, "{\"error\":{\"message\":\"Invalid Signature\"}}");
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> storage.store(new SpooledImage(file, 5, "image/jpeg", "ab")));
+
+        assertTrue(ex.getMessage().contains("Invalid Signature"), ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Muitos uploads devem ficar em andamento ao mesmo tempo com poucas threads")
+    void shouldKeepManyUploadsInFlight() throws Exception {
+        handler = exchange -> {
+            sleep(200);
+            respond(exchange, 200, "{\"secure_url\":\"https://res.cloudinary.com/demo/a.jpg\"}");
+        };
+
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            uploads.add(storage.storeAsync(new SpooledImage(file, 5, "image/jpeg", "ab")));
+        }
+        CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        // Em sequência seriam 6,4 s; com 2 threads no cliente, todos correm juntos.
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        assertEquals(32, bodies.size());
+    }
+
+    @Test
+    @DisplayName("Exclusão em lote deve mandar os public ids em chamadas de até 100, autenticadas")
+    void shouldDeleteInBatchesOfHundred() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            urls.add("https://res.cloudinary.com/demo/image/upload/v1718000000/img" + i + ".jpg");
+        }
+        urls.add("https://outro-cdn/img0.jpg");
+
+        storage.deleteAll(urls);
+
+        assertEquals(2, deletions.size());
+        String first = deletions.poll();
+        String auth = "Basic " + Base64.getEncoder().encodeToString("chave:segredo".getBytes(StandardCharsets.UTF_8));
+        assertTrue(first.startsWith("DELETE public_ids%5B%5D=img0&public_ids%5B%5D=img1&"), first);
+        assertTrue(first.endsWith("public_ids%5B%5D=img99 " + auth), first);
+        assertTrue(deletions.poll().startsWith("DELETE public_ids%5B%5D=img100&"));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) {
+        try (exchange) {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String sha1(String value) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.packhub.product.domain.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * MultipartFile apoiado em disco, como as partes gravadas pelo Tomcat.
+ * {@link #getBytes()} falha de propósito para garantir que ninguém bufferiza o arquivo inteiro.
+ */
+class FileBackedMultipartFile implements MultipartFile {
+
+    private final Path path;
+    private final String contentType;
+
+    FileBackedMultipartFile(Path path, String contentType) {
+        this.path = path;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public String getName() {
+        return "image";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return path.getFileName().toString();
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public byte[] getBytes() {
+        throw new UnsupportedOperationException("o upload não deve carregar o arquivo inteiro em memória");
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void transferTo(Path dest) throws IOException {
+        Files.copy(path, dest, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
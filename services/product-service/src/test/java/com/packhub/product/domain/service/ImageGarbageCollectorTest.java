@@ -0,0 +1,121 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.domain.entities.ImageDeletion;
+import com.packhub.product.domain.repositories.ImageAssetRepository;
+import com.packhub.product.domain.repositories.ImageDeletionRepository;
+import com.packhub.product.domain.repositories.ProductImageRepository;
+import com.packhub.product.domain.repositories.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageGarbageCollectorTest {
+
+    @Mock
+    private ImageDeletionRepository imageDeletionRepository;
+
+    @Mock
+    private ImageAssetRepository imageAssetRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @Mock
+    private ImageStorage imageStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Registro novo deve só sair do índice de deduplicação e esperar a carência")
+    void shouldUnindexBeforeDeleting() {
+        ImageDeletion fresh = deletion("https://cdn/a.jpg", "https://cdn/a-mini.jpg", null);
+        when(imageDeletionRepository.findDue(any(), any())).thenReturn(List.of(fresh)).thenReturn(List.of());
+
+        collector(5).collect();
+
+        verify(imageAssetRepository).deleteByUrlIn(List.of("https://cdn/a.jpg"));
+        verifyNoInteractions(imageStorage);
+        assertNotNull(fresh.getUnindexedAt());
+        assertTrue(fresh.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(14)));
+    }
+
+    @Test
+    @DisplayName("Deve apagar em uma chamada as imagens sem uso e manter as que outro produto ainda usa")
+    void shouldDeleteOrphansAndKeepImagesInUse() {
+        ImageDeletion orphan = deletion("https://cdn/a.jpg", "https://cdn/a-mini.jpg", LocalDateTime.now());
+        ImageDeletion shared = deletion("https://cdn/b.jpg", "https://cdn/b-mini.jpg", LocalDateTime.now());
+        when(imageDeletionRepository.findDue(any(), any())).thenReturn(List.of(orphan, shared)).thenReturn(List.of());
+        when(productImageRepository.findUrlsIn(List.of("https://cdn/a.jpg", "https://cdn/b.jpg")))
+                .thenReturn(List.of("https://cdn/b.jpg"));
+
+        collector(5).collect();
+
+        verify(imageStorage).deleteAll(List.of("https://cdn/a.jpg", "https://cdn/a-mini.jpg"));
+        verify(imageDeletionRepository).deleteAllInBatch(List.of(orphan, shared));
+    }
+
+    @Test
+    @DisplayName("Falha do storage deve manter o registro na fila com espera exponencial")
+    void shouldRetryLaterWithBackoff() {
+        ImageDeletion orphan = deletion("https://cdn/a.jpg", null, LocalDateTime.now());
+        orphan.setAttempts(2);
+        when(imageDeletionRepository.findDue(any(), any())).thenReturn(List.of(orphan)).thenReturn(List.of());
+        doThrow(new IllegalStateException("HTTP 420")).when(imageStorage).deleteAll(any());
+
+        collector(5).collect();
+
+        assertEquals(3, orphan.getAttempts());
+        // 1 min dobrando a cada tentativa: a terceira espera 4 min.
+        Duration wait = Duration.between(LocalDateTime.now(), orphan.getNextAttemptAt());
+        assertTrue(wait.compareTo(Duration.ofMinutes(3)) > 0 && wait.compareTo(Duration.ofMinutes(4)) <= 0,
+                wait.toString());
+        verify(imageDeletionRepository).deleteAllInBatch(List.of());
+    }
+
+    @Test
+    @DisplayName("Cada rodada deve parar ao gastar o limite de chamadas ao storage")
+    void shouldStopAtMaxRequestsPerRun() {
+        when(imageDeletionRepository.findDue(any(), any()))
+                .thenReturn(List.of(deletion("https://cdn/a.jpg", null, LocalDateTime.now())))
+                .thenReturn(List.of(deletion("https://cdn/b.jpg", null, LocalDateTime.now())));
+
+        collector(1).collect();
+
+        verify(imageStorage).deleteAll(List.of("https://cdn/a.jpg"));
+        verify(imageDeletionRepository, times(1)).findDue(any(), any());
+    }
+
+    private ImageGarbageCollector collector(int maxRequestsPerRun) {
+        return new ImageGarbageCollector(imageDeletionRepository, imageAssetRepository, productRepository,
+                productImageRepository, imageStorage, new ProductShards(), transactionManager, true, 50,
+                maxRequestsPerRun, Duration.ofMinutes(15), Duration.ofMinutes(1), Duration.ofHours(6));
+    }
+
+    private static ImageDeletion deletion(String url, String thumbnailUrl, LocalDateTime unindexedAt) {
+        return ImageDeletion.builder()
+                .url(url)
+                .thumbnailUrl(thumbnailUrl)
+                .createdAt(LocalDateTime.now().minusHours(1))
+                .unindexedAt(unindexedAt)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.packhub.product.domain.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImagePreprocessorTest {
+
+    private final ImagePreprocessor preprocessor = new ImagePreprocessor(Runnable::run, true, 2048, 320, 0.82f, 50);
+    private final List<SpooledImage> spooled = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        spooled.forEach(SpooledImage::close);
+    }
+
+    @Test
+    @DisplayName("Deve limitar o lado maior da imagem e gerar a miniatura")
+    void shouldCapDimensionsAndCreateThumbnail() throws Exception {
+        SpooledImage original = spool(jpeg(halves(4000, 3000)), "image/jpeg");
+
+        try (ProcessedImage processed = preprocessor.process(original)) {
+            BufferedImage full = ImageIO.read(processed.getFull().getFile().toFile());
+            BufferedImage thumbnail = ImageIO.read(processed.getThumbnail().getFile().toFile());
+
+            assertEquals(2048, full.getWidth());
+            assertEquals(1536, full.getHeight());
+            assertEquals(320, thumbnail.getWidth());
+            assertEquals(240, thumbnail.getHeight());
+            assertEquals("image/jpeg", processed.getThumbnail().getContentType());
+            assertNotEquals(original.getSha256(), processed.getFull().getSha256());
+            assertTrue(processed.getFull().getSize() < original.getSize());
+        }
+        assertTrue(Files.exists(original.getFile()));
+    }
+
+    @Test
+    @DisplayName("Deve aplicar a orientação EXIF nos pixels")
+    void shouldApplyExifOrientation() throws Exception {
+        // Orientação 6: girar 90° no sentido horário; a metade esquerda (vermelha) passa a ser a de cima.
+        SpooledImage original = spool(withOrientation(jpeg(halves(400, 200)), 6), "image/jpeg");
+
+        try (ProcessedImage processed = preprocessor.process(original)) {
+            BufferedImage full = ImageIO.read(processed.getFull().getFile().toFile());
+
+            assertEquals(200, full.getWidth());
+            assertEquals(400, full.getHeight());
+            assertTrue(new Color(full.getRGB(100, 20)).getRed() > 200);
+            assertTrue(new Color(full.getRGB(100, 380)).getBlue() > 200);
+        }
+    }
+
+    @Test
+    @DisplayName("Arquivo que não pode ser decodificado deve seguir como veio, sem miniatura")
+    void shouldKeepUndecodableImage() throws Exception {
+        byte[] truncated = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0, 0};
+        SpooledImage original = spool(truncated, "image/jpeg");
+
+        try (ProcessedImage processed = preprocessor.process(original)) {
+            assertSame(original, processed.getFull());
+            assertNull(processed.getThumbnail());
+        }
+        assertTrue(Files.exists(original.getFile()));
+    }
+
+    @Test
+    @DisplayName("Fila de processamento cheia deve virar 503")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        ImagePreprocessor saturated = new ImagePreprocessor(task -> {
+            throw new RejectedExecutionException();
+        }, true, 2048, 320, 0.82f, 50);
+        SpooledImage original = spool(jpeg(halves(40, 30)), "image/jpeg");
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> saturated.process(original));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+    }
+
+    private SpooledImage spool(byte[] content, String contentType) throws Exception {
+        Path file = Files.createTempFile("preprocessor-test-", ".upload");
+        Files.write(file, content);
+        SpooledImage image = new SpooledImage(file, content.length, contentType, "ab");
+        spooled.add(image);
+        return image;
+    }
+
+    // Metade esquerda vermelha e direita azul.
+    private static BufferedImage halves(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLUE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, width / 2, height);
+        g.dispose();
+        return image;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    // Insere logo após o SOI um APP1 EXIF mínimo (TIFF big-endian, IFD0 só com a tag de orientação).
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {'E', 'x', 'i', 'f', 0, 0, 'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0, 0, 0, 0, 0};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write((exif.length + 2) >> 8);
+        out.write(exif.length + 2);
+        out.write(exif, 0, exif.length);
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,104 @@
+package com.packhub.product.domain.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * JMH do kernel de redução do {@link ImagePreprocessor}: foto de 12 MP reduzida para o tamanho de exibição e para
+ * a miniatura, comparando a redução progressiva do {@link ImageResizer} com um único passo bilinear e um único
+ * passo bicúbico. Rodar com {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageResizerBenchmarkTest {
+
+    @Param({"2048", "320"})
+    public int target;
+
+    private BufferedImage photo;
+    private int width;
+    private int height;
+
+    @Setup
+    public void setUp() {
+        // Ruído sobre um gradiente: sem áreas lisas que deixem a interpolação barata demais.
+        photo = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < photo.getHeight(); y++) {
+            for (int x = 0; x < photo.getWidth(); x++) {
+                int noise = random.nextInt(64);
+                photo.setRGB(x, y, ((x * 191 / 4000 + noise) << 16) | ((y * 191 / 3000 + noise) << 8) | noise * 3);
+            }
+        }
+        double scale = ImageResizer.scaleToFit(photo.getWidth(), photo.getHeight(), target);
+        width = (int) Math.round(photo.getWidth() * scale);
+        height = (int) Math.round(photo.getHeight() * scale);
+    }
+
+    @Benchmark
+    public BufferedImage progressive() {
+        return ImageResizer.resize(photo, width, height, false);
+    }
+
+    @Benchmark
+    public BufferedImage singleStepBilinear() {
+        return singleStep(RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    }
+
+    @Benchmark
+    public BufferedImage singleStepBicubic() {
+        return singleStep(RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    private BufferedImage singleStep(Object interpolation) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g.drawImage(photo, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    @Test
+    @DisplayName("Redução de 12 MP para exibição e miniatura (JMH)")
+    void measureResize() throws Exception {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(ImageResizerBenchmarkTest.class.getName() + ".")
+                .jvmArgsAppend("-Djava.awt.headless=true")
+                .build()).run();
+
+        assertFalse(results.isEmpty());
+    }
+}
@@ -0,0 +1,200 @@
+package com.packhub.product.domain.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Uploader;
+import com.packhub.product.domain.entities.ImageAsset;
+import com.packhub.product.domain.repositories.ImageAssetRepository;
+import com.packhub.product.dto.UploadedImageDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageServiceTest {
+
+    private static final int CONCURRENT_UPLOADS = 8;
+    private static final int FILE_SIZE = 16 * 1024 * 1024;
+    private static final long MAX_ALLOCATION_PER_UPLOAD = 2 * 1024 * 1024;
+
+    private Path largeImage;
+    private Uploader uploader;
+    private ImageAssetRepository imageAssetRepository;
+    private ImagePreprocessor imagePreprocessor;
+    private ImageService imageService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        largeImage = Files.createTempFile("large-image-", ".jpg");
+        try (OutputStream out = Files.newOutputStream(largeImage)) {
+            out.write(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0});
+            byte[] chunk = new byte[64 * 1024];
+            for (int written = 4; written < FILE_SIZE; written += chunk.length) {
+                out.write(chunk);
+            }
+        }
+
+        Cloudinary cloudinary = mock(Cloudinary.class);
+        uploader = mock(Uploader.class);
+        when(cloudinary.uploader()).thenReturn(uploader);
+        when(uploader.upload(any(File.class), anyMap())).thenAnswer(invocation -> {
+            File spooled = invocation.getArgument(0);
+            assertTrue(spooled.length() >= FILE_SIZE);
+            return Map.of("secure_url", "https://cdn/" + spooled.getName());
+        });
+
+        imageAssetRepository = mock(ImageAssetRepository.class);
+        when(imageAssetRepository.findByHash(anyString())).thenReturn(Optional.empty());
+
+        imagePreprocessor = new ImagePreprocessor(Runnable::run, true, 2048, 320, 0.82f, 50);
+        imageService = new ImageService(new ImageSpooler(DataSize.ofMegabytes(32)), imagePreprocessor,
+                new CloudinaryService(cloudinary), imageAssetRepository, Runnable::run, 4);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(largeImage);
+    }
+
+    @Test
+    @DisplayName("Uploads concorrentes de arquivos grandes alocam uma fração do tamanho do arquivo")
+    void shouldStreamConcurrentLargeUploadsWithBoundedHeap() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENT_UPLOADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> allocations = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < CONCURRENT_UPLOADS; i++) {
+                allocations.add(pool.submit(() -> {
+                    start.await();
+                    long before = allocatedBytes();
+                    String url = imageService.upload(new FileBackedMultipartFile(largeImage, "image/jpeg")).getUrl();
+                    assertTrue(url.startsWith("https://cdn/"));
+                    return allocatedBytes() - before;
+                }));
+            }
+            start.countDown();
+
+            for (Future<Long> allocation : allocations) {
+                long allocated = allocation.get();
+                assertTrue(allocated < MAX_ALLOCATION_PER_UPLOAD,
+                        "upload alocou " + allocated + " bytes para um arquivo de " + FILE_SIZE);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Imagem já enviada antes deve reaproveitar a URL sem novo upload")
+    void shouldReuseUrlOfDuplicateImage() throws Exception {
+        when(imageAssetRepository.findByHash(anyString())).thenReturn(
+                Optional.of(new UploadedImageDTO("https://cdn/existente.jpg", "https://cdn/existente-mini.jpg")));
+
+        UploadedImageDTO uploaded = imageService.upload(new FileBackedMultipartFile(largeImage, "image/jpeg"));
+
+        assertEquals("https://cdn/existente.jpg", uploaded.getUrl());
+        assertEquals("https://cdn/existente-mini.jpg", uploaded.getThumbnailUrl());
+        verify(uploader, never()).upload(any(File.class), anyMap());
+        verify(imageAssetRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Imagem nova deve ser enviada e indexada pelo SHA-256 do conteúdo")
+    void shouldIndexNewImageByContentHash() throws Exception {
+        String url = imageService.upload(new FileBackedMultipartFile(largeImage, "image/jpeg")).getUrl();
+
+        ArgumentCaptor<ImageAsset> asset = ArgumentCaptor.forClass(ImageAsset.class);
+        verify(imageAssetRepository).save(asset.capture());
+        assertEquals(url, asset.getValue().getUrl());
+        assertEquals(sha256(largeImage), asset.getValue().getHash());
+        assertEquals("image/jpeg", asset.getValue().getContentType());
+    }
+
+    @Test
+    @DisplayName("Galeria deve ser enviada em paralelo, respeitando o limite por requisição e a ordem")
+    void shouldUploadGalleryInParallelWithBoundedConcurrency() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ImageStorage slowStorage = new ImageStorage() {
+            @Override
+            public String store(SpooledImage image) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return "https://cdn/" + image.getSha256();
+            }
+
+            @Override
+            public void deleteAll(List<String> urls) {
+            }
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<SpooledImage> gallery = new ArrayList<>();
+        try {
+            ImageService parallel = new ImageService(new ImageSpooler(DataSize.ofMegabytes(32)), imagePreprocessor,
+                    slowStorage, imageAssetRepository, pool, 2);
+            for (int i = 0; i < 6; i++) {
+                // GIF segue sem pré-processamento: um único envio por imagem.
+                gallery.add(new SpooledImage(Files.createTempFile("gallery-", ".gif"), 1, "image/gif", "img" + i));
+            }
+
+            List<UploadedImageDTO> uploaded = parallel.uploadAll(gallery);
+
+            assertEquals(2, maxInFlight.get());
+            assertEquals(List.of("https://cdn/img0", "https://cdn/img1", "https://cdn/img2", "https://cdn/img3",
+                    "https://cdn/img4", "https://cdn/img5"), uploaded.stream().map(UploadedImageDTO::getUrl).toList());
+        } finally {
+            gallery.forEach(SpooledImage::close);
+            pool.shutdownNow();
+        }
+    }
+
+    private static String sha256(Path file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
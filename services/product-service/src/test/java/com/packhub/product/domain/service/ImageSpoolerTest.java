@@ -0,0 +1,62 @@
+package com.packhub.product.domain.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageSpoolerTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13};
+
+    private final ImageSpooler spooler = new ImageSpooler(DataSize.ofKilobytes(1));
+
+    @Test
+    @DisplayName("Deve copiar a imagem para disco, identificar o tipo pelos magic bytes e calcular o SHA-256")
+    void shouldSpoolValidImage() throws Exception {
+        MockMultipartFile image = new MockMultipartFile("image", "foto.bin", "application/octet-stream", PNG);
+
+        try (SpooledImage spooled = spooler.spool(image)) {
+            assertEquals("image/png", spooled.getContentType());
+            assertEquals(PNG.length, spooled.getSize());
+            assertArrayEquals(PNG, Files.readAllBytes(spooled.getFile()));
+            assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(PNG)), spooled.getSha256());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar com 415 arquivos que não são imagens, mesmo com content-type de imagem")
+    void shouldRejectNonImagePayload() {
+        MockMultipartFile image = new MockMultipartFile("image", "foto.jpg", "image/jpeg", "<html></html>".getBytes());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> spooler.spool(image));
+
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, ex.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar com 413 pelo tamanho declarado antes de ler o conteúdo")
+    void shouldRejectOversizedImage() {
+        MockMultipartFile image = new MockMultipartFile("image", "foto.png", "image/png", new byte[2048]);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> spooler.spool(image));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, ex.getStatusCode());
+    }
+
+    @Test
+    void shouldDetectSupportedFormats() {
+        assertEquals("image/jpeg", ImageSpooler.detectContentType(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0}));
+        assertEquals("image/gif", ImageSpooler.detectContentType("GIF89a".getBytes()));
+        assertEquals("image/webp", ImageSpooler.detectContentType("RIFF\0\0\0\0WEBPVP8 ".getBytes()));
+        assertNull(ImageSpooler.detectContentType(new byte[]{1, 2}));
+    }
+}
@@ -0,0 +1,153 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.domain.entities.ImageStatus;
+import com.packhub.product.domain.repositories.ProductRepository;
+import com.packhub.product.dto.ProductDTO;
+import com.packhub.product.dto.ProductEventDTO;
+import com.packhub.product.dto.UploadedImageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageUploadWorkerTest {
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private ImageService imageService;
+
+    @Mock
+    private ProductListCache productListCache;
+
+    @Mock
+    private ProductGallery productGallery;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImageUploadWorker worker;
+
+    private Path file;
+
+    private SpooledImage image;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        worker = new ImageUploadWorker(repository, new ProductShards(), imageService, productListCache,
+                productGallery, productSearchIndex, productPriceIndex, eventPublisher, transactionManager,
+                new SyncTaskExecutor(), 3, Duration.ZERO, 1, 1);
+        file = Files.createTempFile("worker-test-", ".upload");
+        image = new SpooledImage(file, 0, "image/jpeg", "ab");
+    }
+
+    @Test
+    @DisplayName("Deve tentar novamente e marcar a imagem como READY quando um upload posterior funcionar")
+    void shouldRetryAndCompleteUpload() {
+        List<UploadedImageDTO> uploaded =
+                List.of(new UploadedImageDTO("https://cdn/img.jpg", "https://cdn/img-mini.jpg"));
+        List<UploadedImageDTO> previous = List.of(new UploadedImageDTO("https://cdn/old.jpg", "https://cdn/old.jpg"));
+        when(imageService.uploadAll(List.of(image)))
+                .thenThrow(new RuntimeException("timeout"))
+                .thenReturn(uploaded);
+        when(productGallery.current(1L)).thenReturn(previous);
+        when(repository.updateImage(eq(1L), any(), any(), eq(ImageStatus.READY), any())).thenReturn(1);
+        LocalDateTime now = LocalDateTime.now();
+        ProductDTO product = new ProductDTO(1L, "Camiseta", 59.9, "https://cdn/img.jpg", "https://cdn/img-mini.jpg",
+                ImageStatus.READY, "123", now, now, 2L);
+        when(repository.findDtoById(1L)).thenReturn(Optional.of(product));
+
+        worker.submit(worker.reserve(1), 1L, "123", List.of(image));
+
+        verify(imageService, times(2)).uploadAll(List.of(image));
+        verify(repository).updateImage(eq(1L), eq("https://cdn/img.jpg"), eq("https://cdn/img-mini.jpg"),
+                eq(ImageStatus.READY), any());
+        verify(productGallery).replace(1L, previous, uploaded);
+        verify(productListCache).invalidate("123");
+        verify(productSearchIndex).put(1L, "Camiseta", now);
+        verify(productPriceIndex).put(1L, 59.9);
+        verify(eventPublisher).publishEvent(ProductEventDTO.updated(product));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    @DisplayName("Imagens de um produto excluído durante o upload devem ir para a fila de exclusão")
+    void shouldDiscardImagesOfDeletedProduct() {
+        List<UploadedImageDTO> uploaded = List.of(new UploadedImageDTO("https://cdn/img.jpg", "https://cdn/img.jpg"));
+        when(imageService.uploadAll(List.of(image))).thenReturn(uploaded);
+
+        worker.submit(worker.reserve(1), 1L, "123", List.of(image));
+
+        verify(productGallery).discard(uploaded);
+        verify(productGallery, never()).replace(any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Deve marcar a imagem como FAILED após esgotar as tentativas")
+    void shouldMarkFailedAfterMaxAttempts() {
+        when(imageService.uploadAll(List.of(image))).thenThrow(new RuntimeException("indisponível"));
+
+        worker.submit(worker.reserve(1), 1L, "123", List.of(image));
+
+        verify(imageService, times(3)).uploadAll(List.of(image));
+        verify(repository).updateImage(eq(1L), isNull(), isNull(), eq(ImageStatus.FAILED), any());
+        verifyNoInteractions(productGallery);
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    @DisplayName("Com a fila cheia a reserva deve ser recusada com 503 até um lugar ser devolvido")
+    void shouldRejectReservationWhenQueueIsFull() {
+        ImageUploadWorker.Reservation full = worker.reserve(2);
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class, () -> worker.reserve(1));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+
+        full.close();
+        worker.reserve(2).close();
+    }
+
+    @Test
+    @DisplayName("O lugar usado pelo upload deve voltar para a fila quando o upload termina")
+    void shouldReleaseSlotAfterUpload() {
+        when(imageService.uploadAll(List.of(image))).thenReturn(List.of());
+
+        worker.submit(worker.reserve(1), 1L, "123", List.of(image));
+
+        worker.reserve(2).close();
+    }
+}
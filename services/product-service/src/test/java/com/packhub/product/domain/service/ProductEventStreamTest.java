@@ -0,0 +1,113 @@
+package com.packhub.product.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.packhub.product.domain.entities.ImageStatus;
+import com.packhub.product.dto.ProductDTO;
+import com.packhub.product.dto.ProductEventDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductEventStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    @DisplayName("Deve entregar só os eventos do usuário filtrado")
+    void shouldDeliverOnlyEventsOfSubscribedUser() throws IOException {
+        ProductEventStream stream = stream(new SyncTaskExecutor(), 16, "drop-oldest", 10);
+        SseEmitter all = mock(SseEmitter.class);
+        SseEmitter onlyAna = mock(SseEmitter.class);
+        stream.register(all, null);
+        stream.register(onlyAna, "ana");
+
+        stream.onProductEvent(ProductEventDTO.created(product(1L, "ana")));
+        stream.onProductEvent(ProductEventDTO.deleted(2L, "bia"));
+
+        verify(all, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(onlyAna, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    @DisplayName("Assinante lento deve perder os eventos mais antigos e receber os mais novos")
+    void shouldDropOldestEventsForSlowSubscriber() throws IOException {
+        List<Runnable> pending = new ArrayList<>();
+        ProductEventStream stream = stream(pending::add, 2, "drop-oldest", 10);
+        SseEmitter emitter = mock(SseEmitter.class);
+        stream.register(emitter, null);
+
+        for (long id = 1; id <= 5; id++) {
+            stream.onProductEvent(ProductEventDTO.deleted(id, "ana"));
+        }
+        assertEquals(1, pending.size());
+        pending.get(0).run();
+
+        verify(emitter, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter, never()).complete();
+    }
+
+    @Test
+    @DisplayName("Com a política disconnect, assinante lento é desconectado ao encher a fila")
+    void shouldDisconnectSlowSubscriber() {
+        List<Runnable> pending = new ArrayList<>();
+        ProductEventStream stream = stream(pending::add, 2, "disconnect", 10);
+        SseEmitter emitter = mock(SseEmitter.class);
+        stream.register(emitter, null);
+
+        for (long id = 1; id <= 3; id++) {
+            stream.onProductEvent(ProductEventDTO.deleted(id, "ana"));
+        }
+
+        verify(emitter).complete();
+        assertEquals(0, stream.subscriberCount());
+    }
+
+    @Test
+    @DisplayName("Falha de escrita deve encerrar a conexão e liberar o assinante")
+    void shouldRemoveSubscriberWhenSendFails() throws IOException {
+        ProductEventStream stream = stream(new SyncTaskExecutor(), 16, "drop-oldest", 10);
+        SseEmitter emitter = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        stream.register(emitter, null);
+
+        stream.onProductEvent(ProductEventDTO.deleted(1L, "ana"));
+
+        verify(emitter).complete();
+        assertEquals(0, stream.subscriberCount());
+    }
+
+    @Test
+    void shouldRejectSubscribersAboveLimit() {
+        ProductEventStream stream = stream(new SyncTaskExecutor(), 16, "drop-oldest", 1);
+        stream.register(mock(SseEmitter.class), null);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> stream.register(mock(SseEmitter.class), null));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+    }
+
+    private ProductEventStream stream(TaskExecutor executor, int queueCapacity, String overflow, int maxSubscribers) {
+        return new ProductEventStream(objectMapper, executor, queueCapacity, maxSubscribers, overflow, Duration.ofMinutes(1));
+    }
+
+    private static ProductDTO product(Long id, String userCode) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ProductDTO(id, "Produto " + id, 10.0, null, null, ImageStatus.READY, userCode, now, now, 0L);
+    }
+}
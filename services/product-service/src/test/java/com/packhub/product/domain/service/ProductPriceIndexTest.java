@@ -0,0 +1,57 @@
+package com.packhub.product.domain.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductPriceIndexTest {
+
+    private ProductPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductPriceIndex(null, null, null, true);
+        index.put(1L, 30.0);
+        index.put(2L, 10.0);
+        index.put(3L, 20.0);
+        index.put(4L, 10.0);
+        index.put(5L, 50.0);
+    }
+
+    @Test
+    @DisplayName("Deve devolver a faixa de preço ordenada por preço e id")
+    void shouldReturnRangeOrderedByPriceAndId() {
+        assertArrayEquals(new long[]{2L, 4L, 3L, 1L}, index.range(10.0, 30.0, null, null, 10));
+        assertArrayEquals(new long[]{3L, 1L, 5L}, index.range(15.0, null, null, null, 10));
+        assertArrayEquals(new long[]{2L, 4L}, index.range(null, null, null, null, 2));
+        assertArrayEquals(new long[0], index.range(60.0, null, null, null, 10));
+    }
+
+    @Test
+    @DisplayName("Deve continuar depois do cursor (preço, id), inclusive entre preços iguais")
+    void shouldContinueAfterCursor() {
+        assertArrayEquals(new long[]{4L, 3L}, index.range(null, null, 10.0, 2L, 2));
+        assertArrayEquals(new long[]{1L}, index.range(null, 40.0, 20.0, 3L, 10));
+    }
+
+    @Test
+    @DisplayName("Deve reposicionar produtos com preço alterado e esquecer os removidos")
+    void shouldMoveUpdatedAndDropRemovedProducts() {
+        index.put(2L, 40.0);
+        index.remove(3L);
+
+        assertEquals(4, index.size());
+        assertArrayEquals(new long[]{4L, 1L, 2L, 5L}, index.range(null, null, null, null, 10));
+    }
+
+    @Test
+    void shouldIgnoreWritesWhenDisabled() {
+        ProductPriceIndex disabled = new ProductPriceIndex(null, null, null, false);
+        disabled.put(1L, 10.0);
+
+        assertFalse(disabled.isEnabled());
+        assertEquals(0, disabled.size());
+    }
+}
@@ -0,0 +1,65 @@
+package com.packhub.product.domain.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Latência de consulta do índice de busca com 1 milhão de produtos.
+ * Rodar com {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ProductSearchIndexBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2_000;
+
+    private static final String[] KINDS = {"Camiseta", "Camisa", "Calça", "Bermuda", "Tênis", "Boné", "Jaqueta",
+            "Moletom", "Vestido", "Saia", "Meia", "Cinto", "Mochila", "Relógio", "Óculos", "Sandália"};
+    private static final String[] ADJECTIVES = {"Básica", "Slim", "Estampada", "Esportiva", "Social", "Jeans",
+            "Listrada", "Oversized", "Infantil", "Feminina", "Masculina", "Premium", "Térmica", "Casual"};
+    private static final String[] COLORS = {"Branca", "Preta", "Azul", "Vermelha", "Verde", "Cinza", "Bege",
+            "Rosa", "Amarela", "Marrom"};
+    private static final String[] QUERIES = {"cam", "camiseta preta", "camizeta", "tenis esport", "bone azul",
+            "jaqueta termica", "moleton", "vestido floral", "calca jeans slim", "x"};
+
+    @Test
+    @DisplayName("Consultas top-20 sobre 1M de produtos")
+    void measureQueryLatency() {
+        ProductSearchIndex index = new ProductSearchIndex(null, null, null, false);
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = KINDS[random.nextInt(KINDS.length)] + " "
+                    + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + COLORS[random.nextInt(COLORS.length)] + " " + i;
+            index.put(i, name, base.plusSeconds(i));
+        }
+        System.out.printf("build      : %,d ms para %,d produtos%n", (System.nanoTime() - start) / 1_000_000, PRODUCTS);
+
+        for (int i = 0; i < WARMUP; i++) {
+            index.search(QUERIES[i % QUERIES.length], ProductSearchIndex.DEFAULT_LIMIT);
+        }
+
+        long[] latencies = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long t = System.nanoTime();
+            index.search(QUERIES[i % QUERIES.length], ProductSearchIndex.DEFAULT_LIMIT);
+            latencies[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("search p50 : %,d µs%n", latencies[ITERATIONS / 2] / 1_000);
+        System.out.printf("search p99 : %,d µs%n", latencies[ITERATIONS * 99 / 100] / 1_000);
+
+        assertFalse(index.search("camiseta preta", 20).isEmpty());
+    }
+}
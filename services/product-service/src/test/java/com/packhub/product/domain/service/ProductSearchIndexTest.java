@@ -0,0 +1,104 @@
+package com.packhub.product.domain.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null, null, null, false);
+        index.put(1L, "Camiseta Básica Branca", NOW.minusDays(3));
+        index.put(2L, "Calça Jeans", NOW.minusDays(2));
+        index.put(3L, "Camisa Social", NOW.minusDays(1));
+        index.put(4L, "Tênis de Corrida", NOW);
+    }
+
+    @Test
+    @DisplayName("Deve encontrar produtos pelo prefixo do que está sendo digitado")
+    void shouldMatchPrefix() {
+        List<Long> ids = index.search("cami", 10);
+
+        assertEquals(List.of(3L, 1L), ids.subList(0, 2));
+        assertFalse(ids.contains(4L));
+    }
+
+    @Test
+    @DisplayName("Deve ignorar acentos e maiúsculas")
+    void shouldIgnoreAccentsAndCase() {
+        assertEquals(1L, index.search("CAMISETA BASICA", 10).get(0));
+        assertEquals(4L, index.search("tenis", 10).get(0));
+    }
+
+    @Test
+    @DisplayName("Deve tolerar erros de digitação")
+    void shouldTolerateTypos() {
+        assertEquals(1L, index.search("camizeta", 10).get(0));
+        assertEquals(2L, index.search("calca jens", 10).get(0));
+    }
+
+    @Test
+    @DisplayName("No empate de relevância os produtos mais recentes vêm primeiro")
+    void shouldBreakTiesByRecency() {
+        index.put(5L, "Boné", NOW.minusDays(10));
+        index.put(6L, "Boné", NOW.plusDays(1));
+
+        assertEquals(List.of(6L, 5L), index.search("bone", 10));
+    }
+
+    @Test
+    @DisplayName("Deve refletir renomeações e exclusões")
+    void shouldApplyUpdatesAndRemovals() {
+        index.put(2L, "Bermuda Jeans", NOW.minusDays(2));
+        index.remove(3L);
+
+        assertFalse(index.search("calca", 10).contains(2L));
+        assertEquals(2L, index.search("bermuda", 10).get(0));
+        assertFalse(index.search("camisa social", 10).contains(3L));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Deve continuar correto depois de compactar as postings")
+    void shouldStayCorrectAfterCompaction() {
+        for (long id = 100; id < 5_100; id++) {
+            index.put(id, "Produto temporário " + id, NOW);
+        }
+        for (long id = 100; id < 5_100; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(4, index.size());
+        assertEquals(List.of(), index.search("temporario", 10));
+        assertEquals(1L, index.search("camiseta", 10).get(0));
+    }
+
+    @Test
+    @DisplayName("Deve continuar encontrando os produtos depois que a tabela de postings cresce")
+    void shouldFindProductsAfterPostingsGrow() {
+        for (long id = 100; id < 3_100; id++) {
+            index.put(id, "Modelo " + id, NOW);
+        }
+
+        for (long id = 100; id < 3_100; id += 97) {
+            assertEquals(id, index.search(String.valueOf(id), 1).get(0));
+        }
+        assertEquals(1L, index.search("camiseta", 10).get(0));
+    }
+
+    @Test
+    void shouldLimitResultsAndIgnoreBlankQueries() {
+        assertEquals(1, index.search("ca", 1).size());
+        assertTrue(index.search("  !! ", 10).isEmpty());
+    }
+}
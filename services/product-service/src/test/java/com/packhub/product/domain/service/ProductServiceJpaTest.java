@@ -0,0 +1,145 @@
+package com.packhub.product.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.packhub.product.config.AuthenticatedUserProvider;
+import com.packhub.product.domain.entities.ImageDeletion;
+import com.packhub.product.domain.entities.Product;
+import com.packhub.product.domain.entities.ProductTombstone;
+import com.packhub.product.domain.repositories.ImageDeletionRepository;
+import com.packhub.product.domain.repositories.ProductRepository;
+import com.packhub.product.domain.repositories.ProductTombstoneRepository;
+import com.packhub.product.dto.ProductEventDTO;
+import com.packhub.product.dto.ProductListVersionDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exclusão contra o H2 com as migrations, num único banco (sem sharding) e sem a transação do teste, como em
+ * produção: DELETE, tombstone e fila de exclusão das imagens precisam ser gravados juntos pelo próprio serviço.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductService.class, ProductShards.class, ProductGallery.class})
+@RecordApplicationEvents
+class ProductServiceJpaTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ImageDeletionRepository imageDeletionRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private AuthenticatedUserProvider authenticatedUserProvider;
+
+    @MockBean
+    private ImageService imageService;
+
+    @MockBean
+    private ImageUploadWorker imageUploadWorker;
+
+    @MockBean
+    private ProductListCache productListCache;
+
+    @MockBean
+    private ProductSearchIndex productSearchIndex;
+
+    @MockBean
+    private ProductPriceIndex productPriceIndex;
+
+    @MockBean
+    private SingleFlight singleFlight;
+
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    // Sem a transação do teste os dados são commitados; cada teste limpa o que gravou.
+    @AfterEach
+    void cleanUp() {
+        imageDeletionRepository.deleteAll();
+        tombstoneRepository.deleteAll();
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Sem sharding, a exclusão deve gravar o tombstone e enfileirar as imagens")
+    void shouldDeleteWithTombstoneInSingleDatabase() {
+        Long id = repository.save(product("u1")).getId();
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("u1");
+
+        productService.deleteProduct(id);
+
+        assertFalse(repository.existsById(id));
+        ProductTombstone tombstone = tombstoneRepository.findById(id).orElseThrow();
+        assertEquals("u1", tombstone.getUserCode());
+        assertEquals(List.of("https://cdn/a.jpg"),
+                imageDeletionRepository.findAll().stream().map(ImageDeletion::getUrl).toList());
+        assertEquals(List.of(ProductEventDTO.deleted(id, "u1")), events.stream(ProductEventDTO.class).toList());
+    }
+
+    @Test
+    @DisplayName("Exclusão recusada não deve deixar tombstone nem imagens na fila")
+    void shouldNotWriteTombstoneWhenDeleteIsRejected() {
+        Long id = repository.save(product("u2")).getId();
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("u1");
+
+        assertThrows(AccessDeniedException.class, () -> productService.deleteProduct(id));
+
+        assertTrue(repository.existsById(id));
+        assertEquals(0, tombstoneRepository.count());
+        assertEquals(0, imageDeletionRepository.count());
+        assertEquals(0, events.stream(ProductEventDTO.class).count());
+    }
+
+    @Test
+    @DisplayName("A exclusão deve avançar o Last-Modified da lista do usuário")
+    void shouldAdvanceListVersionOnDelete() {
+        when(singleFlight.execute(any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        Long kept = repository.save(product("u1")).getId();
+        Long removed = repository.save(product("u1")).getId();
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("u1");
+
+        productService.deleteProduct(removed);
+
+        ProductListVersionDTO version = productService.getListVersion("u1");
+        assertEquals(1L, version.getCount());
+        assertEquals(tombstoneRepository.findById(removed).orElseThrow().getDeletedAt(), version.getLastModified());
+        assertTrue(version.getLastModified().isAfter(repository.findById(kept).orElseThrow().getUpdatedAt()));
+    }
+
+    private static Product product(String userCode) {
+        Product product = new Product();
+        product.setName("Camiseta");
+        product.setPrice(59.9);
+        product.setUserCode(userCode);
+        product.setImageUrl("https://cdn/a.jpg");
+        product.setThumbnailUrl("https://cdn/a-mini.jpg");
+        return product;
+    }
+}
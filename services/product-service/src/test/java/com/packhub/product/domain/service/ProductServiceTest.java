@@ -1,24 +1,55 @@
 package com.packhub.product.domain.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.packhub.product.config.AuthenticatedUserProvider;
+import com.packhub.product.config.PrimaryReads;
+import com.packhub.product.domain.entities.ImageStatus;
 import com.packhub.product.domain.entities.Product;
+import com.packhub.product.domain.entities.ProductTombstone;
+import com.packhub.product.domain.repositories.ProductQuery;
 import com.packhub.product.domain.repositories.ProductRepository;
+import com.packhub.product.domain.repositories.ProductSort;
+import com.packhub.product.domain.repositories.ProductTombstoneRepository;
 import com.packhub.product.dto.CreateProductDTO;
+import com.packhub.product.dto.ProductChangesDTO;
+import com.packhub.product.dto.ProductDTO;
+import com.packhub.product.dto.ProductEventDTO;
+import com.packhub.product.dto.ProductImageDTO;
+import com.packhub.product.dto.ProductListVersionDTO;
+import com.packhub.product.dto.ProductOwnershipDTO;
+import com.packhub.product.dto.ProductPageDTO;
+import com.packhub.product.dto.UploadedImageDTO;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,20 +64,154 @@ public class ProductServiceTest {
     private ProductRepository repository;
 
     @Mock
-    private CloudinaryService cloudinaryService;
+    private ImageService imageService;
 
     @Mock
     private AuthenticatedUserProvider authenticatedUserProvider;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ProductListCache productListCache;
+
+    @Mock
+    private ImageUploadWorker imageUploadWorker;
+
+    @Mock
+    private ProductGallery productGallery;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private ProductShards productShards = new ProductShards();
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
 
     @Test
     void shouldReturnAllProducts() {
-        List<Product> mockList = List.of(new Product(), new Product());
-        when(repository.findAll()).thenReturn(mockList);
+        List<ProductDTO> mockList = List.of(ProductDTO.from(new Product()), ProductDTO.from(new Product()));
+        when(repository.findFirstPage(any())).thenReturn(mockList);
 
-        List<Product> result = productService.getProducts();
+        ProductPageDTO result = productService.getProducts(null, null, null, null, null);
 
-        assertEquals(2, result.size());
+        assertEquals(2, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Deve retornar cursor da próxima página quando houver mais itens que o limite")
+    void shouldReturnNextCursorWhenThereAreMoreItems() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 6, 1, 10, 0);
+        List<ProductDTO> rows = List.of(
+                ProductDTO.from(Product.builder().id(1L).createdAt(createdAt).build()),
+                ProductDTO.from(Product.builder().id(2L).createdAt(createdAt).build()),
+                ProductDTO.from(Product.builder().id(3L).createdAt(createdAt).build())
+        );
+        when(repository.findFirstPage(PageRequest.of(0, 3))).thenReturn(rows);
+
+        ProductPageDTO result = productService.getProducts(null, 2, null, null, null);
+
+        assertEquals(2, result.getItems().size());
+        ProductCursor next = ProductCursor.decode(result.getNextCursor());
+        assertEquals(createdAt, next.getCreatedAt());
+        assertEquals(2L, next.getId());
+    }
+
+    @Test
+    @DisplayName("Deve continuar a partir do cursor informado")
+    void shouldContinueFromCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 6, 1, 10, 0);
+        String cursor = new ProductCursor(createdAt, 2L).encode();
+        when(repository.findPageAfter(eq(createdAt), eq(2L), any())).thenReturn(List.of());
+
+        ProductPageDTO result = productService.getProducts(cursor, null, null, null, null);
+
+        assertTrue(result.getItems().isEmpty());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar cursor inválido com 400")
+    void shouldRejectInvalidCursor() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> productService.getProducts("não-é-um-cursor", null, null, null, null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Filtro de preço ordenado por preço deve usar a consulta dinâmica e devolver cursor por preço")
+    void shouldFilterAndSortByPrice() {
+        List<ProductDTO> rows = List.of(
+                productDto(4L, "A", 10.0, null),
+                productDto(2L, "B", 15.0, null),
+                productDto(9L, "C", 20.0, null));
+        ArgumentCaptor<ProductQuery> query = ArgumentCaptor.forClass(ProductQuery.class);
+        when(repository.findPage(query.capture(), eq(3))).thenReturn(rows);
+
+        ProductPageDTO result = productService.getProducts(null, 2, 10.0, 50.0, "price");
+
+        assertEquals(List.of(4L, 2L), result.getItems().stream().map(ProductDTO::getId).toList());
+        assertEquals(10.0, query.getValue().getMinPrice());
+        assertEquals(50.0, query.getValue().getMaxPrice());
+        assertEquals(ProductSort.PRICE, query.getValue().getSort());
+        ProductCursor next = ProductCursor.decode(result.getNextCursor());
+        assertTrue(next.isByPrice());
+        assertEquals(15.0, next.getPrice());
+        assertEquals(2L, next.getId());
+    }
+
+    @Test
+    @DisplayName("Com o índice de preços habilitado a ordenação por preço não consulta a faixa no banco")
+    void shouldServePriceSortFromInMemoryIndex() {
+        String cursor = ProductCursor.byPrice(15.0, 2L).encode();
+        when(productPriceIndex.isEnabled()).thenReturn(true);
+        when(productPriceIndex.range(null, 30.0, 15.0, 2L, 21)).thenReturn(new long[]{9L, 5L});
+        when(repository.findDtosByIdIn(List.of(9L, 5L))).thenReturn(List.of(
+                productDto(5L, "E", 25.0, null),
+                productDto(9L, "C", 20.0, null)));
+
+        ProductPageDTO result = productService.getProducts(cursor, null, null, 30.0, "price");
+
+        assertEquals(List.of(9L, 5L), result.getItems().stream().map(ProductDTO::getId).toList());
+        verify(repository, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar com 400 faixa de preço invertida e cursor de outra ordenação")
+    void shouldRejectInvalidPriceQueries() {
+        String createdAtCursor = new ProductCursor(LocalDateTime.of(2025, 6, 1, 10, 0), 2L).encode();
+
+        ResponseStatusException inverted = assertThrows(ResponseStatusException.class,
+                () -> productService.getProducts(null, null, 50.0, 10.0, null));
+        ResponseStatusException mixed = assertThrows(ResponseStatusException.class,
+                () -> productService.getProducts(createdAtCursor, null, null, null, "price"));
+        ResponseStatusException unknownSort = assertThrows(ResponseStatusException.class,
+                () -> productService.getProducts(null, null, null, null, "name"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, inverted.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, mixed.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, unknownSort.getStatusCode());
+        verifyNoInteractions(repository);
     }
 
     @Test
@@ -54,34 +219,267 @@ public class ProductServiceTest {
         MultipartFile image = new MockMultipartFile("image", "image.jpg", "image/jpeg", new byte[]{1, 2});
         CreateProductDTO dto = new CreateProductDTO("Produto Teste", 99.9, null);
         String mockUrl = "http://image.url/teste.jpg";
+        String mockThumbnailUrl = "http://image.url/teste-mini.jpg";
         String userCode = "12345";
+        SpooledImage spooled = new SpooledImage(Path.of("spooled.upload"), 2, "image/jpeg", "ab");
+        List<UploadedImageDTO> uploads = List.of(new UploadedImageDTO(mockUrl, mockThumbnailUrl));
 
-        when(cloudinaryService.upload(image)).thenReturn(mockUrl);
+        when(imageService.spool(image)).thenReturn(spooled);
+        when(imageService.uploadAll(List.of(spooled))).thenReturn(uploads);
         when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn(userCode);
-        when(repository.save(Mockito.<Product>any())).thenAnswer(i -> i.getArgument(0));
+        when(repository.save(Mockito.<Product>any())).thenAnswer(i -> {
+            Product p = i.getArgument(0);
+            p.setId(1L);
+            return p;
+        });
 
-        Product result = productService.createProduct(dto, image);
+        ProductDTO result = productService.createProduct(dto, List.of(image));
 
         assertEquals(dto.getName(), result.getName());
         assertEquals(dto.getPrice(), result.getPrice());
         assertEquals(mockUrl, result.getImageUrl());
+        assertEquals(mockThumbnailUrl, result.getThumbnailUrl());
         assertEquals(userCode, result.getUserCode());
+        assertEquals(1, result.getImages().size());
+        verify(productGallery).create(Map.of(1L, uploads));
+        verify(productListCache).invalidate(userCode);
+        ArgumentCaptor<ProductEventDTO> event = ArgumentCaptor.forClass(ProductEventDTO.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ProductEventDTO.Type.CREATED, event.getValue().getType());
+        assertEquals(1L, event.getValue().getProductId());
+    }
+
+    @Test
+    @DisplayName("Com upload assíncrono deve salvar o produto como PENDING sem esperar o upload")
+    void shouldCreateProductWithPendingImageWhenUploadIsAsync() {
+        ReflectionTestUtils.setField(productService, "asyncImageUpload", true);
+        MultipartFile image = new MockMultipartFile("image", "image.jpg", "image/jpeg", new byte[]{1, 2});
+        CreateProductDTO dto = new CreateProductDTO("Produto Teste", 99.9, null);
+
+        SpooledImage spooled = new SpooledImage(Path.of("spooled.upload"), 2, "image/jpeg", "ab");
+
+        ImageUploadWorker.Reservation reservation = mock(ImageUploadWorker.Reservation.class);
+
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("12345");
+        when(imageUploadWorker.reserve(1)).thenReturn(reservation);
+        when(imageService.spool(image)).thenReturn(spooled);
+        when(repository.save(Mockito.<Product>any())).thenAnswer(i -> {
+            Product p = i.getArgument(0);
+            p.setId(10L);
+            return p;
+        });
+
+        ProductDTO result = productService.createProduct(dto, List.of(image));
+
+        assertEquals(ImageStatus.PENDING, result.getImageStatus());
+        assertNull(result.getImageUrl());
+        verify(imageUploadWorker).submit(reservation, 10L, "12345", List.of(spooled));
+        verify(reservation).close();
+        verify(imageService, never()).uploadAll(anyList());
+        verify(productGallery, never()).create(any());
+    }
+
+    @Test
+    @DisplayName("Com a fila de upload cheia não deve salvar o produto")
+    void shouldNotSaveProductWhenUploadQueueIsFull() {
+        ReflectionTestUtils.setField(productService, "asyncImageUpload", true);
+        MultipartFile image = new MockMultipartFile("image", "image.jpg", "image/jpeg", new byte[]{1, 2});
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("12345");
+        when(imageUploadWorker.reserve(1)).thenThrow(
+                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Fila de upload de imagens cheia"));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> productService.createProduct(new CreateProductDTO("Produto Teste", 99.9, null), List.of(image)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        verify(imageService, never()).spool(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve gravar a galeria com a primeira imagem como principal")
+    void shouldCreateProductWithGallery() {
+        List<MultipartFile> images = List.of(
+                new MockMultipartFile("image", "frente.jpg", "image/jpeg", new byte[]{1}),
+                new MockMultipartFile("image", "verso.jpg", "image/jpeg", new byte[]{2}));
+        SpooledImage front = new SpooledImage(Path.of("frente.upload"), 1, "image/jpeg", "aa");
+        SpooledImage back = new SpooledImage(Path.of("verso.upload"), 1, "image/jpeg", "bb");
+        List<UploadedImageDTO> uploads = List.of(
+                new UploadedImageDTO("https://cdn/frente.jpg", "https://cdn/frente-mini.jpg"),
+                new UploadedImageDTO("https://cdn/verso.jpg", "https://cdn/verso-mini.jpg"));
+
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("12345");
+        when(imageService.spool(images.get(0))).thenReturn(front);
+        when(imageService.spool(images.get(1))).thenReturn(back);
+        when(imageService.uploadAll(List.of(front, back))).thenReturn(uploads);
+        when(repository.save(Mockito.<Product>any())).thenAnswer(i -> {
+            Product p = i.getArgument(0);
+            p.setId(7L);
+            return p;
+        });
+
+        ProductDTO result = productService.createProduct(new CreateProductDTO("Produto", 10.0, null), images);
+
+        assertEquals("https://cdn/frente.jpg", result.getImageUrl());
+        assertEquals(List.of("https://cdn/frente.jpg", "https://cdn/verso.jpg"),
+                result.getImages().stream().map(ProductImageDTO::getUrl).toList());
+        assertEquals(1, result.getImages().get(1).getPosition());
+        verify(productGallery).checkSize(2);
+        verify(productGallery).create(Map.of(7L, uploads));
+    }
+
+    @Test
+    @DisplayName("Cadastro em lote deve gravar todos os produtos com um único saveAll")
+    void shouldCreateProductsInBulk() {
+        ReflectionTestUtils.setField(productService, "maxBulkItems", 10);
+        List<MultipartFile> images = List.of(
+                new MockMultipartFile("image", "a.jpg", "image/jpeg", new byte[]{1}),
+                new MockMultipartFile("image", "b.jpg", "image/jpeg", new byte[]{2}));
+        List<CreateProductDTO> dtos = List.of(
+                new CreateProductDTO("Produto A", 10.0, null),
+                new CreateProductDTO("Produto B", 20.0, null));
+        SpooledImage first = new SpooledImage(Path.of("a.upload"), 1, "image/jpeg", "aa");
+        SpooledImage second = new SpooledImage(Path.of("b.upload"), 1, "image/jpeg", "bb");
+
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("12345");
+        when(imageService.spool(images.get(0))).thenReturn(first);
+        when(imageService.spool(images.get(1))).thenReturn(second);
+        when(imageService.uploadAll(List.of(first, second))).thenReturn(List.of(
+                new UploadedImageDTO("https://cdn/a.jpg", "https://cdn/a-mini.jpg"),
+                new UploadedImageDTO("https://cdn/b.jpg", "https://cdn/b-mini.jpg")));
+        when(repository.saveAll(anyList())).thenAnswer(i -> {
+            List<Product> products = i.getArgument(0);
+            for (int n = 0; n < products.size(); n++) {
+                products.get(n).setId(n + 1L);
+            }
+            return products;
+        });
+
+        List<ProductDTO> result = productService.createProducts(dtos, images);
+
+        assertEquals(2, result.size());
+        assertEquals("Produto B", result.get(1).getName());
+        assertEquals("https://cdn/b.jpg", result.get(1).getImageUrl());
+        assertEquals("https://cdn/b-mini.jpg", result.get(1).getThumbnailUrl());
+        assertEquals(List.of("https://cdn/b.jpg"), result.get(1).getImages().stream().map(ProductImageDTO::getUrl).toList());
+        assertEquals("12345", result.get(0).getUserCode());
+        verify(repository, never()).save(any());
+        verify(productListCache).invalidate("12345");
+    }
+
+    @Test
+    @DisplayName("Cadastro em lote deve falhar sem gravar nada quando algum upload falhar")
+    void shouldNotSaveBulkWhenAnUploadFails() {
+        ReflectionTestUtils.setField(productService, "maxBulkItems", 10);
+        List<MultipartFile> images = List.of(
+                new MockMultipartFile("image", "a.jpg", "image/jpeg", new byte[]{1}),
+                new MockMultipartFile("image", "b.jpg", "image/jpeg", new byte[]{2}));
+        List<CreateProductDTO> dtos = List.of(
+                new CreateProductDTO("Produto A", 10.0, null),
+                new CreateProductDTO("Produto B", 20.0, null));
+        SpooledImage first = new SpooledImage(Path.of("a.upload"), 1, "image/jpeg", "aa");
+        SpooledImage second = new SpooledImage(Path.of("b.upload"), 1, "image/jpeg", "bb");
+
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("12345");
+        when(imageService.spool(images.get(0))).thenReturn(first);
+        when(imageService.spool(images.get(1))).thenReturn(second);
+        when(imageService.uploadAll(List.of(first, second))).thenThrow(
+                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Serviço de imagens indisponível"));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> productService.createProducts(dtos, images));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Cadastro em lote deve rejeitar com 400 quando faltar imagem para algum produto")
+    void shouldRejectBulkWithMissingImages() {
+        ReflectionTestUtils.setField(productService, "maxBulkItems", 10);
+        List<CreateProductDTO> dtos = List.of(
+                new CreateProductDTO("Produto A", 10.0, null),
+                new CreateProductDTO("Produto B", 20.0, null));
+        List<MultipartFile> images = List.of(new MockMultipartFile("image", "a.jpg", "image/jpeg", new byte[]{1}));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> productService.createProducts(dtos, images));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(repository, imageService);
+    }
+
+    @Test
+    @DisplayName("Cadastro em lote deve rejeitar com 400 lotes acima do limite configurado")
+    void shouldRejectBulkAboveLimit() {
+        ReflectionTestUtils.setField(productService, "maxBulkItems", 1);
+        List<CreateProductDTO> dtos = List.of(
+                new CreateProductDTO("Produto A", 10.0, null),
+                new CreateProductDTO("Produto B", 20.0, null));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> productService.createProducts(dtos, List.of()));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Busca deve devolver os produtos na ordem de relevância do índice")
+    void shouldSearchProductsKeepingIndexOrder() {
+        when(productSearchIndex.search("cami", ProductSearchIndex.DEFAULT_LIMIT)).thenReturn(List.of(3L, 1L));
+        when(repository.findDtosByIdIn(List.of(3L, 1L))).thenReturn(List.of(
+                productDto(1L, "Camiseta", 10.0, null),
+                productDto(3L, "Camisa", 20.0, null)));
+
+        List<ProductDTO> result = productService.searchProducts("cami", null);
+
+        assertEquals(List.of(3L, 1L), result.stream().map(ProductDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Busca sem termo deve responder 400")
+    void shouldRejectBlankSearch() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> productService.searchProducts(" ", null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(productSearchIndex);
+    }
+
+    @Test
+    @DisplayName("Deve exportar uma linha JSON por produto e desanexar cada entidade")
+    void shouldExportProductsAsNdjson() throws Exception {
+        Product first = Product.builder().id(1L).name("A").build();
+        Product second = Product.builder().id(2L).name("B").build();
+        when(repository.streamAll()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = productService.exportProducts(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals("B", objectMapper.readTree(lines[1]).get("name").asText());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
     }
 
     @Test
     @DisplayName("Deve retornar lista de produtos pelo userCode")
     void shouldReturnProductsByUserCode() {
         String userCode = "abc123";
-        List<Product> mockList = List.of(
-                Product.builder().id(1L).name("Produto 1").userCode(userCode).build()
+        List<ProductDTO> mockList = List.of(
+                ProductDTO.from(Product.builder().id(1L).name("Produto 1").userCode(userCode).build())
         );
 
-        when(repository.findAllByUserCode(userCode)).thenReturn(mockList);
+        when(repository.findFirstPageByUserCode(eq(userCode), any())).thenReturn(mockList);
 
-        List<Product> result = productService.getProductsByUserCode(userCode);
+        ProductPageDTO result = productService.getProductsByUserCode(userCode, null, null);
 
-        assertEquals(1, result.size());
-        assertEquals(userCode, result.get(0).getUserCode());
+        assertEquals(1, result.getItems().size());
+        assertEquals(userCode, result.getItems().get(0).getUserCode());
     }
 
 
@@ -90,32 +488,54 @@ public class ProductServiceTest {
     void shouldReturnEmptyListWhenUserHasNoProducts() {
         String userCode = "inexistente";
 
-        when(repository.findAllByUserCode(userCode)).thenReturn(List.of());
+        when(repository.findFirstPageByUserCode(eq(userCode), any())).thenReturn(List.of());
 
-        List<Product> result = productService.getProductsByUserCode(userCode);
+        ProductPageDTO result = productService.getProductsByUserCode(userCode, null, null);
 
-        assertTrue(result.isEmpty());
+        assertTrue(result.getItems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Leituras que alimentam o cache da listagem devem ir ao primário")
+    void shouldReadCachedListFromPrimary() {
+        String userCode = "abc123";
+        when(repository.findFirstPageByUserCode(eq(userCode), any())).thenAnswer(invocation -> {
+            assertTrue(PrimaryReads.isForced());
+            return List.of();
+        });
+        when(repository.findListVersion(userCode)).thenAnswer(invocation -> {
+            assertTrue(PrimaryReads.isForced());
+            return new ProductListVersionDTO(null, 0L);
+        });
+
+        productService.getProductsByUserCode(userCode, null, null);
+        productService.getListVersion(userCode);
+
+        assertFalse(PrimaryReads.isForced());
     }
 
 
     @Test
-    @DisplayName("Deve atualizar apenas o nome")
+    @DisplayName("Deve atualizar apenas o nome com um único UPDATE condicional")
     void shouldUpdateOnlyName() {
         Long id = 1L;
         CreateProductDTO dto = new CreateProductDTO("Novo Nome", null, null);
-        Product existing = Product.builder()
-                .id(id).name("Antigo").price(10.0).imageUrl("img.jpg").userCode("123")
-                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build();
 
-        when(repository.findById(id)).thenReturn(Optional.of(existing));
         when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
-        when(repository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(repository.updateOwned(eq(id), eq("123"),
+                eq("Novo Nome"), isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(1);
+        when(repository.findDtoById(id)).thenReturn(Optional.of(productDto(id, "Novo Nome", 10.0, "img.jpg")));
 
-        Product result = productService.updateProduct(id, dto, null);
+        ProductDTO result = productService.updateProduct(id, dto, null, null);
 
         assertEquals("Novo Nome", result.getName());
         assertEquals(10.0, result.getPrice());
         assertEquals("img.jpg", result.getImageUrl());
+        verify(repository, never()).findById(any());
+        verify(repository, never()).findOwnership(any());
+        verify(productListCache).invalidate("123");
+        verify(productSearchIndex).put(eq(id), eq("Novo Nome"), any());
     }
 
     @Test
@@ -123,82 +543,106 @@ public class ProductServiceTest {
     void shouldUpdateOnlyPrice() {
         Long id = 1L;
         CreateProductDTO dto = new CreateProductDTO(null, 123.45, null);
-        Product existing = Product.builder()
-                .id(id).name("Nome").price(10.0).imageUrl("img.jpg").userCode("123")
-                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build();
 
-        when(repository.findById(id)).thenReturn(Optional.of(existing));
         when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
-        when(repository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(repository.updateOwned(eq(id), eq("123"),
+                isNull(), eq(123.45), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(1);
+        when(repository.findDtoById(id)).thenReturn(Optional.of(productDto(id, "Nome", 123.45, "img.jpg")));
 
-        Product result = productService.updateProduct(id, dto, null);
+        ProductDTO result = productService.updateProduct(id, dto, null, null);
 
         assertEquals("Nome", result.getName());
         assertEquals(123.45, result.getPrice());
-        assertEquals("img.jpg", result.getImageUrl());
     }
 
     @Test
-    @DisplayName("Deve atualizar apenas a imagem")
+    @DisplayName("Deve atualizar apenas a imagem, enviando-a só depois de conferir o dono")
     void shouldUpdateOnlyImage() {
         Long id = 1L;
         CreateProductDTO dto = new CreateProductDTO(null, null, null);
         MultipartFile image = mock(MultipartFile.class);
         when(image.isEmpty()).thenReturn(false);
-        when(cloudinaryService.upload(image)).thenReturn("nova.jpg");
+        SpooledImage spooled = new SpooledImage(Path.of("nova.upload"), 1, "image/jpeg", "ab");
+        List<UploadedImageDTO> uploads = List.of(new UploadedImageDTO("nova.jpg", "nova-mini.jpg"));
+        List<UploadedImageDTO> previous = List.of(new UploadedImageDTO("antiga.jpg", "antiga-mini.jpg"));
 
-        Product existing = Product.builder()
-                .id(id).name("Nome").price(10.0).imageUrl("old.jpg").userCode("123")
-                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build();
-
-        when(repository.findById(id)).thenReturn(Optional.of(existing));
-        when(image.isEmpty()).thenReturn(false);
-        when(cloudinaryService.upload(image)).thenReturn("nova.jpg");
         when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
-        when(repository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(repository.findOwnership(id)).thenReturn(Optional.of(new ProductOwnershipDTO("123", 0L)));
+        when(imageService.spool(image)).thenReturn(spooled);
+        when(imageService.uploadAll(List.of(spooled))).thenReturn(uploads);
+        when(productGallery.current(id)).thenReturn(previous);
+        when(repository.updateOwned(eq(id), eq("123"), isNull(), isNull(), eq("nova.jpg"), eq("nova-mini.jpg"),
+                eq(ImageStatus.READY), isNull(), any())).thenReturn(1);
+        when(repository.findDtoById(id)).thenReturn(Optional.of(productDto(id, "Nome", 10.0, "nova.jpg")));
 
-        Product result = productService.updateProduct(id, dto, image);
+        ProductDTO result = productService.updateProduct(id, dto, List.of(image), null);
 
         assertEquals("nova.jpg", result.getImageUrl());
+        InOrder order = inOrder(repository, imageService, productGallery);
+        order.verify(repository).findOwnership(id);
+        order.verify(imageService).uploadAll(List.of(spooled));
+        // A galeria antiga é lida antes de o UPDATE sobrescrever a imagem principal.
+        order.verify(productGallery).current(id);
+        order.verify(repository).updateOwned(any(), any(), any(), any(), any(), any(), any(), any(), any());
+        order.verify(productGallery).replace(id, previous, uploads);
     }
 
     @Test
-    void shouldUpdateProductWithoutOptionalFields() {
+    @DisplayName("Não deve enviar a imagem quando o usuário não for o dono do produto")
+    void shouldNotUploadImageForAnotherUsersProduct() {
         Long id = 1L;
-        CreateProductDTO dto = new CreateProductDTO(null, null, null);
-        Product existing = Product.builder()
-                .id(id).name("Nome").price(99.9).imageUrl("antiga.jpg").userCode("123")
-                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build();
+        CreateProductDTO dto = new CreateProductDTO("Nome", null, null);
+        MultipartFile image = mock(MultipartFile.class);
+        when(image.isEmpty()).thenReturn(false);
 
-        when(repository.findById(id)).thenReturn(Optional.of(existing));
         when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
-        when(repository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(repository.findOwnership(id)).thenReturn(Optional.of(new ProductOwnershipDTO("999", 0L)));
 
-        Product result = productService.updateProduct(id, dto, null);
+        AccessDeniedException ex = assertThrows(AccessDeniedException.class,
+                () -> productService.updateProduct(id, dto, List.of(image), null));
 
-        assertEquals("Nome", result.getName());
-        assertEquals(99.9, result.getPrice());
-        assertEquals("antiga.jpg", result.getImageUrl());
+        assertEquals("Você não tem permissão para editar este produto.", ex.getMessage());
+        verifyNoInteractions(imageService);
+        verify(repository, never()).updateOwned(any(), any(), any(), any(), any(), any(), any(), any(), any());
     }
 
     @Test
+    @DisplayName("Deve manter a imagem quando o arquivo enviado estiver vazio")
     void shouldUpdateProductWithoutChangingImageWhenImageIsEmpty() {
         Long id = 1L;
         CreateProductDTO dto = new CreateProductDTO("Nome", 10.0, null);
         MultipartFile emptyImage = new MockMultipartFile("image", "img.jpg", "image/jpeg", new byte[0]);
-        Product existing = Product.builder()
-                .id(id).name("Antigo").price(20.0).imageUrl("old.jpg").userCode("123")
-                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build();
 
-        when(repository.findById(id)).thenReturn(Optional.of(existing));
         when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
-        when(repository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(repository.updateOwned(eq(id), eq("123"),
+                eq("Nome"), eq(10.0), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(1);
+        when(repository.findDtoById(id)).thenReturn(Optional.of(productDto(id, "Nome", 10.0, "old.jpg")));
 
-        Product result = productService.updateProduct(id, dto, emptyImage);
+        ProductDTO result = productService.updateProduct(id, dto, List.of(emptyImage), null);
 
-        assertEquals("Nome", result.getName());
-        assertEquals(10.0, result.getPrice());
         assertEquals("old.jpg", result.getImageUrl());
+        verifyNoInteractions(imageService);
+    }
+
+    @Test
+    @DisplayName("Deve responder 412 quando a versão do If-Match estiver desatualizada")
+    void shouldRejectUpdateWithStaleVersion() {
+        Long id = 1L;
+        CreateProductDTO dto = new CreateProductDTO("Nome", null, null);
+
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
+        when(repository.updateOwned(eq(id), eq("123"),
+                eq("Nome"), isNull(), isNull(), isNull(), isNull(), eq(5L), any()))
+                .thenReturn(0);
+        when(repository.findOwnership(id)).thenReturn(Optional.of(new ProductOwnershipDTO("123", 6L)));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> productService.updateProduct(id, dto, null, 5L));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, ex.getStatusCode());
+        verify(productListCache, never()).invalidate(any());
     }
 
     @Test
@@ -207,10 +651,12 @@ public class ProductServiceTest {
         CreateProductDTO dto = new CreateProductDTO("Nome", 10.0, null);
         MultipartFile image = new MockMultipartFile("image", new byte[0]);
 
-        when(repository.findById(id)).thenReturn(Optional.empty());
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
+        when(repository.updateOwned(eq(id), eq("123"), any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(repository.findOwnership(id)).thenReturn(Optional.empty());
 
         EntityNotFoundException ex = assertThrows(EntityNotFoundException.class, () -> {
-            productService.updateProduct(id, dto, image);
+            productService.updateProduct(id, dto, List.of(image), null);
         });
 
         assertEquals("Produto não encontrado", ex.getMessage());
@@ -219,19 +665,97 @@ public class ProductServiceTest {
     @Test
     void shouldDeleteProductSuccessfully() {
         Long id = 1L;
-        Product product = Product.builder().id(id).userCode("123").build();
+        List<UploadedImageDTO> images = List.of(new UploadedImageDTO("a.jpg", "a-mini.jpg"));
 
-        when(repository.findById(id)).thenReturn(Optional.of(product));
         when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
+        when(productGallery.current(id)).thenReturn(images);
+        when(repository.deleteOwned(id, "123")).thenReturn(1);
 
         productService.deleteProduct(id);
 
-        verify(repository).delete(product);
+        verify(repository, never()).findById(any());
+        verify(repository, never()).findOwnership(any());
+        verify(productListCache).invalidate("123");
+        verify(productSearchIndex).remove(id);
+        ArgumentCaptor<ProductTombstone> tombstone = ArgumentCaptor.forClass(ProductTombstone.class);
+        verify(entityManager).persist(tombstone.capture());
+        assertEquals(id, tombstone.getValue().getProductId());
+        assertEquals("123", tombstone.getValue().getUserCode());
+        verify(eventPublisher).publishEvent(ProductEventDTO.deleted(id, "123"));
+        verify(productGallery).delete(id, images);
+    }
+
+    @Test
+    @DisplayName("Sem token, a sincronização começa do início e devolve um token que continua de onde parou")
+    void shouldStartFullSyncAndContinueFromToken() {
+        ReflectionTestUtils.setField(productService, "tombstoneRetention", Duration.ofDays(30));
+        ReflectionTestUtils.setField(productService, "changesSafetyWindow", Duration.ofSeconds(2));
+        List<ProductDTO> rows = List.of(
+                productDto(1L, "A", 10.0, null),
+                productDto(2L, "B", 10.0, null),
+                productDto(3L, "C", 10.0, null));
+        when(repository.findChangedFirstPage(any(), eq(PageRequest.of(0, 3)))).thenReturn(rows);
+        when(tombstoneRepository.findPageAfter(any(), eq(0L), any(), eq(PageRequest.of(0, 3)))).thenReturn(List.of());
+
+        ProductChangesDTO first = productService.getChanges(null, 2);
+
+        assertEquals(List.of(1L, 2L), first.getUpdated().stream().map(ProductDTO::getId).toList());
+        assertTrue(first.isHasMore());
+        ProductChangeToken token = ProductChangeToken.decode(first.getNextToken());
+        assertEquals(2L, token.getProductId());
+        assertEquals(rows.get(1).getUpdatedAt(), token.getProductUpdatedAt());
+
+        ProductTombstone removed = new ProductTombstone(9L, "123", LocalDateTime.now().minusMinutes(1));
+        when(repository.findChangedAfter(eq(token.getProductUpdatedAt()), eq(2L), any(), any()))
+                .thenReturn(List.of(rows.get(2)));
+        when(tombstoneRepository.findPageAfter(eq(token.getTombstoneDeletedAt()), eq(token.getTombstoneId()), any(), any()))
+                .thenReturn(List.of(removed));
+
+        ProductChangesDTO second = productService.getChanges(first.getNextToken(), 2);
+
+        assertEquals(List.of(3L), second.getUpdated().stream().map(ProductDTO::getId).toList());
+        assertEquals(List.of(9L), second.getDeleted());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    @DisplayName("Sincronização incremental deve ler do primário, não da réplica atrasada")
+    void shouldReadChangesFromPrimary() {
+        ReflectionTestUtils.setField(productService, "tombstoneRetention", Duration.ofDays(30));
+        ReflectionTestUtils.setField(productService, "changesSafetyWindow", Duration.ofSeconds(2));
+        when(repository.findChangedFirstPage(any(), any())).thenAnswer(invocation -> {
+            assertTrue(PrimaryReads.isForced());
+            return List.of();
+        });
+        when(tombstoneRepository.findPageAfter(any(), anyLong(), any(), any())).thenAnswer(invocation -> {
+            assertTrue(PrimaryReads.isForced());
+            return List.of();
+        });
+
+        productService.getChanges(null, null);
+
+        verify(tombstoneRepository).findPageAfter(any(), anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Token mais antigo que a retenção das exclusões deve retornar 410")
+    void shouldRejectTokenOlderThanTombstoneRetention() {
+        ReflectionTestUtils.setField(productService, "tombstoneRetention", Duration.ofDays(30));
+        ReflectionTestUtils.setField(productService, "changesSafetyWindow", Duration.ofSeconds(2));
+        String expired = ProductChangeToken.initial(LocalDateTime.now().minusDays(31)).encode();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> productService.getChanges(expired, null));
+
+        assertEquals(HttpStatus.GONE, ex.getStatusCode());
+        verifyNoInteractions(repository, tombstoneRepository);
     }
 
     @Test
     void shouldThrowWhenDeletingNonExistentProduct() {
-        when(repository.findById(999L)).thenReturn(Optional.empty());
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
+        when(repository.deleteOwned(999L, "123")).thenReturn(0);
+        when(repository.findOwnership(999L)).thenReturn(Optional.empty());
 
         EntityNotFoundException ex = assertThrows(EntityNotFoundException.class, () -> {
             productService.deleteProduct(999L);
@@ -243,15 +767,38 @@ public class ProductServiceTest {
     @Test
     void shouldThrowWhenDeletingProductFromAnotherUser() {
         Long id = 1L;
-        Product product = Product.builder().id(id).userCode("999").build();
 
-        when(repository.findById(id)).thenReturn(Optional.of(product));
         when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
+        when(repository.deleteOwned(id, "123")).thenReturn(0);
+        when(repository.findOwnership(id)).thenReturn(Optional.of(new ProductOwnershipDTO("999", 0L)));
 
         AccessDeniedException ex = assertThrows(AccessDeniedException.class, () -> {
             productService.deleteProduct(id);
         });
 
         assertEquals("Você não tem permissão para excluir este produto.", ex.getMessage());
+        verify(productListCache, never()).invalidate(any());
+    }
+
+    @Test
+    @DisplayName("DELETE que não removeu nenhuma linha não deve gravar tombstone nem publicar evento")
+    void shouldNotWriteTombstoneWhenNothingWasDeleted() {
+        Long id = 1L;
+
+        when(authenticatedUserProvider.getUserCodeFromToken()).thenReturn("123");
+        when(repository.deleteOwned(id, "123")).thenReturn(0);
+        when(repository.findOwnership(id)).thenReturn(Optional.of(new ProductOwnershipDTO("123", 0L)));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> productService.deleteProduct(id));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, ex.getStatusCode());
+        verify(entityManager, never()).persist(any());
+        verify(productGallery, never()).delete(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static ProductDTO productDto(Long id, String name, Double price, String imageUrl) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ProductDTO(id, name, price, imageUrl, imageUrl, ImageStatus.READY, "123", now, now, 1L);
     }
 }
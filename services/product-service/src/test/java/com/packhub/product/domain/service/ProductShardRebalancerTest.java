@@ -0,0 +1,127 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.config.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dois shards H2 com dados e um terceiro, vazio, incluído no anel.
+ */
+class ProductShardRebalancerTest {
+
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+    private ShardRouter before;
+    private ShardRouter after;
+
+    @BeforeEach
+    void setUp() {
+        for (String name : List.of("shard-a", "shard-b", "shard-c")) {
+            shards.put(name, ProductShardsTest.database(name));
+        }
+        before = new ShardRouter(List.of("shard-a", "shard-b"), 160);
+        after = new ShardRouter(List.of("shard-a", "shard-b", "shard-c"), 160);
+
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 10, 0);
+        for (int user = 0; user < 40; user++) {
+            JdbcTemplate shard = jdbc(before.shardFor("user-" + user));
+            for (int n = 0; n < 3; n++) {
+                long id = user * 10L + n;
+                shard.update("INSERT INTO products (id, name, price, user_code, created_at, updated_at, version) " +
+                                "VALUES (?, ?, ?, ?, ?, ?, 0)",
+                        id, "Produto " + id, 10.0, "user-" + user, Timestamp.valueOf(now), Timestamp.valueOf(now));
+            }
+            shard.update("INSERT INTO product_tombstones (product_id, user_code, deleted_at) VALUES (?, ?, ?)",
+                    user * 10L + 9, "user-" + user, Timestamp.valueOf(now));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve levar para o shard novo só os usuários que passaram a pertencer a ele")
+    void shouldMoveUsersToTheirNewShard() {
+        ProductShardRebalancer.Result result = new ProductShardRebalancer(after, shards).rebalance();
+
+        assertTrue(result.users() > 0);
+        assertEquals(result.users() * 3L, result.products());
+        assertEquals(result.users(), result.tombstones());
+        assertEquals(result.users(), jdbc("shard-c").queryForObject(
+                "SELECT COUNT(DISTINCT user_code) FROM products", Integer.class));
+
+        int products = 0;
+        for (String shard : shards.keySet()) {
+            for (String user : jdbc(shard).queryForList(
+                    "SELECT user_code FROM products UNION ALL SELECT user_code FROM product_tombstones", String.class)) {
+                assertEquals(shard, after.shardFor(user), user + " ficou no shard errado");
+            }
+            products += jdbc(shard).queryForObject("SELECT COUNT(*) FROM products", Integer.class);
+        }
+        assertEquals(120, products);
+    }
+
+    @Test
+    @DisplayName("Rodar de novo não deve mover nada")
+    void shouldBeIdempotent() {
+        ProductShardRebalancer rebalancer = new ProductShardRebalancer(after, shards);
+        rebalancer.rebalance();
+
+        assertEquals(new ProductShardRebalancer.Result(0, 0, 0), rebalancer.rebalance());
+    }
+
+    @Test
+    @DisplayName("Linha que já estava no destino com versão mais nova não deve ser sobrescrita")
+    void shouldKeepNewerVersionOnTarget() {
+        String moved = firstMovedUser();
+        long id = jdbc(before.shardFor(moved)).queryForObject(
+                "SELECT MIN(id) FROM products WHERE user_code = ?", Long.class, moved);
+        LocalDateTime now = LocalDateTime.now();
+        jdbc("shard-c").update("INSERT INTO products (id, name, price, user_code, created_at, updated_at, version) " +
+                        "VALUES (?, 'Renomeado', 20.0, ?, ?, ?, 5)",
+                id, moved, Timestamp.valueOf(now), Timestamp.valueOf(now));
+
+        new ProductShardRebalancer(after, shards).rebalance();
+
+        assertEquals("Renomeado", jdbc("shard-c").queryForObject("SELECT name FROM products WHERE id = ?", String.class, id));
+        assertEquals(0, jdbc(before.shardFor(moved)).queryForObject(
+                "SELECT COUNT(*) FROM products WHERE user_code = ?", Integer.class, moved));
+    }
+
+    @Test
+    @DisplayName("Galeria deve acompanhar o produto movido")
+    void shouldMoveGalleryWithProduct() {
+        String moved = firstMovedUser();
+        JdbcTemplate source = jdbc(before.shardFor(moved));
+        long id = source.queryForObject("SELECT MIN(id) FROM products WHERE user_code = ?", Long.class, moved);
+        source.update("INSERT INTO product_images (id, product_id, position, url, thumbnail_url) VALUES " +
+                "(1, ?, 0, 'frente.jpg', 'frente-mini.jpg'), (2, ?, 1, 'verso.jpg', NULL)", id, id);
+
+        new ProductShardRebalancer(after, shards).rebalance();
+
+        assertEquals(List.of("frente.jpg", "verso.jpg"), jdbc("shard-c").queryForList(
+                "SELECT url FROM product_images WHERE product_id = ? ORDER BY position", String.class, id));
+        assertEquals(0, source.queryForObject("SELECT COUNT(*) FROM product_images", Integer.class));
+    }
+
+    private String firstMovedUser() {
+        for (int user = 0; user < 40; user++) {
+            if (after.shardFor("user-" + user).equals("shard-c")) {
+                return "user-" + user;
+            }
+        }
+        throw new IllegalStateException("nenhum usuário mudou de shard");
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(shards.get(shard));
+    }
+}
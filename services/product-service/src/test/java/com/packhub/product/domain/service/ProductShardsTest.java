@@ -0,0 +1,121 @@
+package com.packhub.product.domain.service;
+
+import com.packhub.product.config.ShardRouter;
+import com.packhub.product.config.ShardRoutingDataSource;
+import com.packhub.product.domain.repositories.ProductSort;
+import com.packhub.product.dto.ProductDTO;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Três bancos H2 em memória como shards, acessados pelo mesmo caminho do serviço: roteamento pelo
+ * {@link com.packhub.product.config.ShardContext} e conexão adiada até o primeiro comando.
+ */
+class ProductShardsTest {
+
+    private static final RowMapper<ProductDTO> PRODUCT = (rs, rowNum) -> new ProductDTO(
+            rs.getLong("id"), rs.getString("name"), rs.getDouble("price"), null, null, null, rs.getString("user_code"),
+            rs.getTimestamp("created_at").toLocalDateTime(), rs.getTimestamp("updated_at").toLocalDateTime(),
+            rs.getLong("version"));
+
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+    private ShardRouter router;
+    private JdbcTemplate jdbc;
+    private ProductShards productShards;
+
+    @BeforeEach
+    void setUp() {
+        for (String name : List.of("shard-a", "shard-b", "shard-c")) {
+            shards.put(name, database(name));
+        }
+        router = new ShardRouter(List.copyOf(shards.keySet()), 160);
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        productShards = new ProductShards(router, new DataSourceTransactionManager(dataSource),
+                new SimpleAsyncTaskExecutor());
+    }
+
+    @Test
+    @DisplayName("Operações de um usuário devem ir só para o shard dele")
+    void shouldKeepEachUserOnItsShard() {
+        for (int i = 0; i < 30; i++) {
+            insert(i + 1, "user-" + i, LocalDateTime.of(2025, 6, 1, 10, 0).plusMinutes(i));
+        }
+
+        for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+            List<String> users = new JdbcTemplate(shard.getValue()).queryForList("SELECT user_code FROM products", String.class);
+            assertTrue(users.size() < 30, "todos os usuários no shard " + shard.getKey());
+            users.forEach(user -> assertEquals(shard.getKey(), router.shardFor(user)));
+        }
+        assertEquals(1, productShards.onShardOf("user-7",
+                () -> jdbc.queryForObject("SELECT COUNT(*) FROM products WHERE user_code = 'user-7'", Integer.class)));
+    }
+
+    @Test
+    @DisplayName("Listagem global deve juntar as páginas dos shards na ordem (createdAt, id)")
+    void shouldMergePagesFromAllShards() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        for (int i = 0; i < 30; i++) {
+            // Dois produtos por instante para que o id desempate.
+            insert(i + 1, "user-" + i, start.plusMinutes(i / 2));
+        }
+
+        List<List<ProductDTO>> pages = productShards.onEachShard(() -> jdbc.query(
+                "SELECT * FROM products WHERE created_at > ? OR (created_at = ? AND id > ?) " +
+                        "ORDER BY created_at, id LIMIT 8",
+                PRODUCT, Timestamp.valueOf(start.plusMinutes(2)), Timestamp.valueOf(start.plusMinutes(2)), 5L));
+        List<ProductDTO> page = ProductShards.merge(pages, ProductSort.CREATED_AT.comparator(), 8);
+
+        assertEquals(3, pages.size());
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L), page.stream().map(ProductDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Busca por id deve encontrar o produto em qualquer shard")
+    void shouldFindByIdOnAnyShard() {
+        insert(42, "user-3", LocalDateTime.now());
+
+        Optional<ProductDTO> found = productShards.findFirst(
+                () -> jdbc.query("SELECT * FROM products WHERE id = 42", PRODUCT).stream().findFirst());
+
+        assertEquals("user-3", found.orElseThrow().getUserCode());
+        assertTrue(productShards.findFirst(
+                () -> jdbc.query("SELECT * FROM products WHERE id = 43", PRODUCT).stream().findFirst()).isEmpty());
+    }
+
+    private void insert(long id, String userCode, LocalDateTime createdAt) {
+        productShards.runOnShardOf(userCode, () -> jdbc.update(
+                "INSERT INTO products (id, name, price, user_code, created_at, updated_at, version) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, 0)",
+                id, "Produto " + id, 10.0, userCode, Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt)));
+    }
+
+    static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/common").load().migrate();
+        return dataSource;
+    }
+}
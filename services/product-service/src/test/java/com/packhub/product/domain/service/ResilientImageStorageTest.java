@@ -0,0 +1,179 @@
+package com.packhub.product.domain.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O armazenamento falso avança um relógio controlado pelo teste em vez de dormir, então a latência injetada
+ * é exata e o teste não depende do tempo real.
+ */
+class ResilientImageStorageTest {
+
+    private static final SpooledImage IMAGE = new SpooledImage(Path.of("imagem.jpg"), 1, "image/jpeg", "ab");
+
+    private final AtomicLong now = new AtomicLong();
+    private final FakeStorage fake = new FakeStorage();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        fake.release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve recusar com 503 o upload que excede o limite de uploads simultâneos")
+    void shouldRejectWhenBulkheadIsFull() throws Exception {
+        ResilientImageStorage storage = storage(2);
+        fake.blocking = true;
+        Future<String> first = executor.submit(() -> storage.store(IMAGE));
+        Future<String> second = executor.submit(() -> storage.store(IMAGE));
+        assertTrue(fake.started.await(5, TimeUnit.SECONDS));
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class, () -> storage.store(IMAGE));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        fake.release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS).startsWith("https://cdn/"));
+        assertTrue(second.get(5, TimeUnit.SECONDS).startsWith("https://cdn/"));
+        assertEquals(2, fake.calls.get());
+    }
+
+    @Test
+    @DisplayName("Depois de muitas falhas o disjuntor deve abrir e recusar sem chamar o armazenamento")
+    void shouldOpenOnFailures() {
+        ResilientImageStorage storage = storage(4);
+        fake.failing = true;
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> storage.store(IMAGE));
+        }
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class, () -> storage.store(IMAGE));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals(CircuitBreaker.State.OPEN, storage.getState());
+        assertEquals(4, fake.calls.get());
+    }
+
+    @Test
+    @DisplayName("Chamadas lentas, mesmo sem erro, devem abrir o disjuntor")
+    void shouldOpenOnSlowCalls() {
+        ResilientImageStorage storage = storage(4);
+        fake.latency = Duration.ofSeconds(3);
+        for (int i = 0; i < 4; i++) {
+            storage.store(IMAGE);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, storage.getState());
+        assertThrows(ResponseStatusException.class, () -> storage.store(IMAGE));
+    }
+
+    @Test
+    @DisplayName("Passado o tempo aberto, chamadas de teste bem-sucedidas devem fechar o disjuntor")
+    void shouldCloseAfterSuccessfulTrialCalls() {
+        ResilientImageStorage storage = storage(4);
+        fake.failing = true;
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> storage.store(IMAGE));
+        }
+        fake.failing = false;
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        storage.store(IMAGE);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, storage.getState());
+        storage.store(IMAGE);
+
+        assertEquals(CircuitBreaker.State.CLOSED, storage.getState());
+    }
+
+    @Test
+    @DisplayName("Falha em uma chamada de teste deve reabrir o disjuntor")
+    void shouldReopenWhenTrialCallFails() {
+        ResilientImageStorage storage = storage(4);
+        fake.failing = true;
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> storage.store(IMAGE));
+        }
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertThrows(IllegalStateException.class, () -> storage.store(IMAGE));
+
+        assertEquals(CircuitBreaker.State.OPEN, storage.getState());
+        assertThrows(ResponseStatusException.class, () -> storage.store(IMAGE));
+    }
+
+    @Test
+    @DisplayName("Exclusão em lote deve passar mesmo com o disjuntor dos uploads aberto")
+    void shouldDeleteWhileBreakerIsOpen() {
+        ResilientImageStorage storage = storage(4);
+        fake.failing = true;
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> storage.store(IMAGE));
+        }
+
+        storage.deleteAll(List.of("https://cdn/1", "https://cdn/2"));
+
+        assertEquals(CircuitBreaker.State.OPEN, storage.getState());
+        assertEquals(List.of("https://cdn/1", "https://cdn/2"), fake.deleted);
+    }
+
+    // Janela de 4 chamadas, abre com 50% de falhas ou de chamadas acima de 2 s, fica aberto por 30 s.
+    private ResilientImageStorage storage(int maxConcurrent) {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, 50, Duration.ofSeconds(2), Duration.ofSeconds(30), 2,
+                now::get);
+        return new ResilientImageStorage(fake, maxConcurrent, Duration.ZERO, maxConcurrent, breaker);
+    }
+
+    private class FakeStorage implements ImageStorage {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean failing;
+        volatile boolean blocking;
+        volatile Duration latency = Duration.ZERO;
+        final List<String> deleted = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String store(SpooledImage image) {
+            int call = calls.incrementAndGet();
+            now.addAndGet(latency.toNanos());
+            if (blocking) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new IllegalStateException("CDN indisponível");
+            }
+            return "https://cdn/" + call;
+        }
+
+        @Override
+        public void deleteAll(List<String> urls) {
+            deleted.addAll(urls);
+        }
+    }
+}
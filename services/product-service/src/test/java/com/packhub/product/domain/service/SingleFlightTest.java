@@ -0,0 +1,133 @@
+package com.packhub.product.domain.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch entered = new CountDownLatch(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Leituras simultâneas da mesma chave devem compartilhar uma única consulta")
+    void shouldShareOneCallBetweenConcurrentCallers() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(10));
+        List<Future<String>> results = startCallers(singleFlight, () -> {
+            calls.incrementAndGet();
+            waitForAllCallers();
+            return "página";
+        });
+
+        for (Future<String> result : results) {
+            assertEquals("página", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.executedCount());
+        assertEquals(CALLERS - 1, singleFlight.coalescedCount());
+    }
+
+    @Test
+    @DisplayName("A exceção da consulta deve chegar a todos que esperavam, e a próxima chamada deve consultar de novo")
+    void shouldPropagateFailureAndNotKeepIt() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(10));
+        IllegalStateException failure = new IllegalStateException("banco indisponível");
+        List<Future<String>> results = startCallers(singleFlight, () -> {
+            calls.incrementAndGet();
+            waitForAllCallers();
+            throw failure;
+        });
+
+        for (Future<String> result : results) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals("ok", singleFlight.execute("produtos", () -> "ok"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Quem esperar além do timeout deve fazer a própria consulta")
+    void shouldFallBackToOwnCallAfterTimeout() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> slow = executor.submit(() -> singleFlight.execute("produtos", () -> {
+            started.countDown();
+            await(release);
+            return "lenta";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertEquals("própria", singleFlight.execute("produtos", () -> "própria"));
+        assertEquals(1, singleFlight.timeoutCount());
+
+        release.countDown();
+        assertEquals("lenta", slow.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Chaves diferentes não devem ser agrupadas")
+    void shouldNotCoalesceDifferentKeys() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(1));
+
+        assertEquals("a", singleFlight.execute("user-a", () -> "a"));
+        assertEquals("b", singleFlight.execute("user-b", () -> "b"));
+        assertEquals(2, singleFlight.executedCount());
+    }
+
+    private List<Future<String>> startCallers(SingleFlight singleFlight, Supplier<String> loader) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                entered.countDown();
+                return singleFlight.execute("produtos", loader);
+            }));
+        }
+        return results;
+    }
+
+    // A consulta só termina depois que todas as threads chamaram execute, para que nenhuma chegue atrasada.
+    private void waitForAllCallers() {
+        await(entered);
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.packhub.product.web;
+
+import com.packhub.product.domain.service.LocalImageStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureMockMvc(addFilters = false)
+@WebMvcTest(controllers = ImageController.class, properties = "product.image.storage=local")
+class ImageControllerTest {
+
+    private static final String ID = "a".repeat(64);
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 1, 2, 3, 4, 5, 6, 7, 8};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LocalImageStorage localImageStorage;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.write(Files.createTempFile("image-", ".png"), PNG);
+        when(localImageStorage.resolve(ID)).thenReturn(Optional.of(file));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @DisplayName("Deve servir a imagem inteira com headers de cache")
+    void shouldServeWholeImage() throws Exception {
+        mockMvc.perform(get("/images/{id}", ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andExpect(header().string("ETag", "\"" + ID + "\""))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(content().bytes(PNG));
+    }
+
+    @Test
+    @DisplayName("Deve responder 206 apenas com o trecho pedido no header Range")
+    void shouldServeRequestedRange() throws Exception {
+        mockMvc.perform(get("/images/{id}", ID).header("Range", "bytes=8-11"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 8-11/16"))
+                .andExpect(content().bytes(new byte[]{1, 2, 3, 4}));
+    }
+
+    @Test
+    @DisplayName("Deve aceitar Range pelo final do arquivo")
+    void shouldServeSuffixRange() throws Exception {
+        mockMvc.perform(get("/images/{id}", ID).header("Range", "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 13-15/16"))
+                .andExpect(content().bytes(new byte[]{6, 7, 8}));
+    }
+
+    @Test
+    @DisplayName("HEAD deve informar o tamanho e o tipo da imagem")
+    void shouldAnswerHead() throws Exception {
+        mockMvc.perform(head("/images/{id}", ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andExpect(header().longValue("Content-Length", PNG.length));
+    }
+
+    @Test
+    @DisplayName("Deve responder 416 para Range fora do arquivo")
+    void shouldRejectUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/images/{id}", ID).header("Range", "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */16"));
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 quando o cliente já tem a imagem")
+    void shouldReturnNotModifiedForMatchingEtag() throws Exception {
+        mockMvc.perform(get("/images/{id}", ID).header("If-None-Match", "\"" + ID + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Deve responder 404 para imagem inexistente")
+    void shouldReturnNotFoundForUnknownImage() throws Exception {
+        when(localImageStorage.resolve("b".repeat(64))).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/images/{id}", "b".repeat(64)))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -2,8 +2,14 @@ package com.packhub.product.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.packhub.product.domain.entities.Product;
+import com.packhub.product.domain.service.ProductEventStream;
+import com.packhub.product.domain.service.ProductListCache;
 import com.packhub.product.domain.service.ProductService;
 import com.packhub.product.dto.CreateProductDTO;
+import com.packhub.product.dto.ProductChangesDTO;
+import com.packhub.product.dto.ProductDTO;
+import com.packhub.product.dto.ProductListVersionDTO;
+import com.packhub.product.dto.ProductPageDTO;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,24 +18,37 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc(addFilters = false)
 @WebMvcTest(ProductController.class)
+@Import(ProductListCache.class)
 public class ProductControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -37,9 +56,15 @@ public class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductEventStream productEventStream;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductListCache productListCache;
+
 
     @Test
     @DisplayName("Deve retornar 200 com lista de produtos")
@@ -52,22 +77,83 @@ public class ProductControllerTest {
                 .userCode("123")
                 .build();
 
-        when(productService.getProducts()).thenReturn(List.of(product));
+        when(productService.getProducts(null, null, null, null, null)).thenReturn(new ProductPageDTO(List.of(ProductDTO.from(product)), null));
 
         mockMvc.perform(get("/products"))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("Deve repassar cursor e tamanho e expor o cursor da próxima página")
+    void shouldReturnNextCursorHeader() throws Exception {
+        Product product = Product.builder().id(2L).name("Produto 2").price(10.0).userCode("123").build();
+
+        when(productService.getProducts("abc", 1, null, null, null)).thenReturn(new ProductPageDTO(List.of(ProductDTO.from(product)), "proximo"));
+
+        mockMvc.perform(get("/products").param("cursor", "abc").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "proximo"))
+                .andExpect(jsonPath("$[0].id").value(2L));
+    }
+
+    @Test
+    @DisplayName("Deve repassar a faixa de preço e a ordenação")
+    void shouldPassPriceFilterAndSort() throws Exception {
+        Product product = Product.builder().id(5L).name("Produto 5").price(25.0).userCode("123").build();
+        when(productService.getProducts(null, null, 10.0, 30.0, "price"))
+                .thenReturn(new ProductPageDTO(List.of(ProductDTO.from(product)), null));
+
+        mockMvc.perform(get("/products").param("minPrice", "10").param("maxPrice", "30").param("sort", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].price").value(25.0));
+    }
+
+    @Test
+    @DisplayName("Deve devolver as mudanças e o próximo token da sincronização")
+    void shouldReturnChangesSinceToken() throws Exception {
+        Product product = Product.builder().id(3L).name("Alterado").price(5.0).userCode("123").build();
+        when(productService.getChanges("abc", 50))
+                .thenReturn(new ProductChangesDTO(List.of(ProductDTO.from(product)), List.of(9L), "def", false));
+
+        mockMvc.perform(get("/products/changes").param("since", "abc").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated[0].id").value(3L))
+                .andExpect(jsonPath("$.deleted[0]").value(9L))
+                .andExpect(jsonPath("$.nextToken").value("def"))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
     @DisplayName("Deve retornar 204 quando não houver produtos")
     void shouldReturnNoContentWhenEmpty() throws Exception {
-        when(productService.getProducts()).thenReturn(List.of());
+        when(productService.getProducts(null, null, null, null, null)).thenReturn(new ProductPageDTO(List.of(), null));
 
         mockMvc.perform(get("/products"))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @DisplayName("Deve buscar produtos pelo nome")
+    void shouldSearchProducts() throws Exception {
+        Product product = Product.builder().id(3L).name("Camisa Social").price(10.0).userCode("123").build();
+        when(productService.searchProducts("cami", 5)).thenReturn(List.of(ProductDTO.from(product)));
+
+        mockMvc.perform(get("/products/search").param("q", "cami").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Camisa Social"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 204 quando a busca não encontrar nada")
+    void shouldReturnNoContentWhenSearchFindsNothing() throws Exception {
+        when(productService.searchProducts("xyz", null)).thenReturn(List.of());
+
+        mockMvc.perform(get("/products/search").param("q", "xyz"))
+                .andExpect(status().isNoContent());
+    }
+
     @Test
     @DisplayName("Deve criar produto com sucesso")
     void shouldCreateProductSuccessfully() throws Exception {
@@ -90,7 +176,7 @@ public class ProductControllerTest {
                 .userCode("123")
                 .build();
 
-        when(productService.createProduct(any(), any())).thenReturn(mockProduct);
+        when(productService.createProduct(any(), anyList())).thenReturn(ProductDTO.from(mockProduct));
 
         mockMvc.perform(multipart("/products")
                         .file(image)
@@ -101,6 +187,52 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.price").value(19.99));
     }
 
+    @Test
+    @DisplayName("Deve criar vários produtos em uma requisição")
+    void shouldCreateProductsInBulk() throws Exception {
+        String jsonData = """
+        [
+            {"name": "Produto A", "price": 10.0},
+            {"name": "Produto B", "price": 20.0}
+        ]
+        """;
+        MockMultipartFile first = new MockMultipartFile("image", "a.jpg", "image/jpeg", "a".getBytes());
+        MockMultipartFile second = new MockMultipartFile("image", "b.jpg", "image/jpeg", "b".getBytes());
+
+        when(productService.createProducts(anyList(), anyList())).thenReturn(List.of(
+                ProductDTO.from(Product.builder().id(1L).name("Produto A").price(10.0).userCode("123").build()),
+                ProductDTO.from(Product.builder().id(2L).name("Produto B").price(20.0).userCode("123").build())));
+
+        mockMvc.perform(multipart("/products/bulk")
+                        .file(first)
+                        .file(second)
+                        .param("data", jsonData)
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("Produto B"));
+
+        verify(productService).createProducts(
+                argThat(dtos -> dtos.size() == 2 && dtos.get(0).getName().equals("Produto A")),
+                argThat(images -> images.size() == 2));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 503 com Retry-After quando a fila de upload estiver cheia")
+    void shouldReturnServiceUnavailableWithRetryAfter() throws Exception {
+        MockMultipartFile image = new MockMultipartFile("image", "imagem.jpg", "image/jpeg", "imagem-falsa".getBytes());
+        when(productService.createProduct(any(), anyList())).thenThrow(
+                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Fila de upload de imagens cheia"));
+
+        mockMvc.perform(multipart("/products")
+                        .file(image)
+                        .param("data", "{\"name\": \"Produto\", \"price\": 10.0}")
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.message").value("Fila de upload de imagens cheia"));
+    }
+
     @Test
     @DisplayName("Deve retornar 400 quando JSON estiver malformado")
     void shouldReturnBadRequestWhenJsonIsMalformed() throws Exception {
@@ -114,6 +246,21 @@ public class ProductControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Deve exportar o catálogo em NDJSON")
+    void shouldExportProductsAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(productService).exportProducts(any());
+
+        mockMvc.perform(get("/products/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
     @Test
     @DisplayName("Deve retornar produtos do usuário por userCode")
     void shouldReturnProductsByUserCode() throws Exception {
@@ -125,22 +272,86 @@ public class ProductControllerTest {
                 .userCode("abc123")
                 .build();
 
-        when(productService.getProductsByUserCode("abc123")).thenReturn(List.of(product));
+        when(productService.getListVersion("abc123")).thenReturn(listVersion(1));
+        when(productService.getProductsByUserCode("abc123", null, null))
+                .thenReturn(new ProductPageDTO(List.of(ProductDTO.from(product)), null));
 
         mockMvc.perform(get("/products/user/abc123"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].userCode").value("abc123"));
     }
 
+    @Test
+    @DisplayName("Deve servir a lista do usuário a partir do cache até uma invalidação")
+    void shouldServeUserProductsFromCacheUntilInvalidated() throws Exception {
+        Product product = Product.builder().id(7L).name("Cacheado").price(1.0).userCode("cache-user").build();
+        when(productService.getListVersion("cache-user")).thenReturn(listVersion(1));
+        when(productService.getProductsByUserCode("cache-user", null, null))
+                .thenReturn(new ProductPageDTO(List.of(ProductDTO.from(product)), null));
+
+        mockMvc.perform(get("/products/user/cache-user")).andExpect(jsonPath("$[0].id").value(7L));
+        mockMvc.perform(get("/products/user/cache-user")).andExpect(jsonPath("$[0].id").value(7L));
+        verify(productService, times(1)).getProductsByUserCode("cache-user", null, null);
+
+        productListCache.invalidate("cache-user");
+        mockMvc.perform(get("/products/user/cache-user")).andExpect(status().isOk());
+        verify(productService, times(2)).getProductsByUserCode("cache-user", null, null);
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 sem consultar a página quando a ETag ou a data ainda valem")
+    void shouldReturnNotModifiedForUnchangedUserList() throws Exception {
+        Product product = Product.builder().id(8L).name("Igual").price(1.0).userCode("poll-user").build();
+        when(productService.getListVersion("poll-user")).thenReturn(listVersion(1));
+        when(productService.getProductsByUserCode("poll-user", null, null))
+                .thenReturn(new ProductPageDTO(List.of(ProductDTO.from(product)), null));
+
+        MvcResult first = mockMvc.perform(get("/products/user/poll-user"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        String lastModified = first.getResponse().getHeader("Last-Modified");
+        productListCache.invalidate("poll-user");
+
+        mockMvc.perform(get("/products/user/poll-user").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/products/user/poll-user").header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotModified());
+
+        verify(productService, times(1)).getProductsByUserCode("poll-user", null, null);
+    }
+
+    @Test
+    @DisplayName("Deve devolver a lista nova quando a versão mudou")
+    void shouldReturnListWhenVersionChanged() throws Exception {
+        Product product = Product.builder().id(9L).name("Novo").price(1.0).userCode("changed-user").build();
+        when(productService.getListVersion("changed-user")).thenReturn(listVersion(1), listVersion(2));
+        when(productService.getProductsByUserCode("changed-user", null, null))
+                .thenReturn(new ProductPageDTO(List.of(ProductDTO.from(product)), null));
+
+        String etag = mockMvc.perform(get("/products/user/changed-user"))
+                .andReturn().getResponse().getHeader("ETag");
+        productListCache.invalidate("changed-user");
+
+        mockMvc.perform(get("/products/user/changed-user").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(9L));
+    }
+
     @Test
     @DisplayName("Deve retornar 404 quando nenhum produto for encontrado por userCode")
     void shouldReturnNotFoundWhenUserHasNoProducts() throws Exception {
-        when(productService.getProductsByUserCode("nao-tem")).thenReturn(List.of());
+        when(productService.getListVersion("nao-tem")).thenReturn(new ProductListVersionDTO(null, 0L));
 
         mockMvc.perform(get("/products/user/nao-tem"))
                 .andExpect(status().isNotFound());
+        verify(productService, never()).getProductsByUserCode("nao-tem", null, null);
     }
 
     @Test
@@ -162,7 +373,7 @@ public class ProductControllerTest {
                 .userCode("123")
                 .build();
 
-        when(productService.updateProduct(eq(id), any(), any())).thenReturn(updatedProduct);
+        when(productService.updateProduct(eq(id), any(), any(), isNull())).thenReturn(ProductDTO.from(updatedProduct));
 
         MockMultipartFile image = new MockMultipartFile("image", "nova-imagem.jpg", "image/jpeg", "imagem".getBytes());
 
@@ -175,6 +386,57 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.price").value(29.99));
     }
 
+    @Test
+    @DisplayName("Deve repassar a versão do If-Match e devolver a nova ETag")
+    void shouldUpdateWithIfMatchAndReturnNewEtag() throws Exception {
+        Product updated = Product.builder().id(1L).name("Produto").price(10.0).userCode("123").version(4L).build();
+        when(productService.updateProduct(eq(1L), any(), isNull(), eq(3L))).thenReturn(ProductDTO.from(updated));
+
+        mockMvc.perform(multipart(HttpMethod.PUT, "/products/{id}", 1L)
+                        .param("data", "{\"name\": \"Produto\"}")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 412 quando o If-Match não for uma ETag de produto")
+    void shouldRejectMalformedIfMatch() throws Exception {
+        mockMvc.perform(multipart(HttpMethod.PUT, "/products/{id}", 1L)
+                        .param("data", "{\"name\": \"Produto\"}")
+                        .header("If-Match", "\"abc\"")
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(productService, never()).updateProduct(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve retornar o produto com a versão como ETag")
+    void shouldReturnProductWithEtag() throws Exception {
+        Product product = Product.builder().id(7L).name("Produto").price(10.0).userCode("123").version(2L).build();
+        when(productService.getProduct(7L)).thenReturn(ProductDTO.from(product));
+
+        mockMvc.perform(get("/products/{id}", 7L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.id").value(7));
+    }
+
+    @Test
+    @DisplayName("If-Match com ETag fraca deve retornar 412 sem atualizar")
+    void shouldRejectWeakIfMatch() throws Exception {
+        mockMvc.perform(multipart(HttpMethod.PUT, "/products/{id}", 1L)
+                        .param("data", "{\"name\": \"Produto\"}")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(productService, never()).updateProduct(any(), any(), any(), any());
+    }
+
     @Test
     @DisplayName("Deve retornar 404 ao tentar atualizar produto inexistente")
     void shouldReturnNotFoundWhenUpdatingNonExistentProduct() throws Exception {
@@ -188,7 +450,7 @@ public class ProductControllerTest {
 
         MockMultipartFile image = new MockMultipartFile("image", "imagem.jpg", "image/jpeg", "dados".getBytes());
 
-        when(productService.updateProduct(eq(id), any(), any()))
+        when(productService.updateProduct(eq(id), any(), any(), any()))
                 .thenThrow(new EntityNotFoundException("Produto não encontrado"));
 
         mockMvc.perform(multipart(HttpMethod.PUT, "/products/{id}", id)
@@ -203,8 +465,8 @@ public class ProductControllerTest {
         CreateProductDTO dto = new CreateProductDTO("Novo nome", 99.0, null);
         String json = objectMapper.writeValueAsString(dto);
 
-        when(productService.updateProduct(eq(1L), any(CreateProductDTO.class), isNull()))
-                .thenReturn(new Product());
+        when(productService.updateProduct(eq(1L), any(CreateProductDTO.class), any(), isNull()))
+                .thenReturn(ProductDTO.from(new Product()));
 
         mockMvc.perform(multipart("/products/1")
                 .file(new MockMultipartFile("image", "image.jpg", "image/jpeg", new byte[]{1, 2}))
@@ -261,4 +523,8 @@ public class ProductControllerTest {
         mockMvc.perform(delete("/products/{id}", id))
                 .andExpect(status().isNotFound());
     }
+
+    private static ProductListVersionDTO listVersion(long count) {
+        return new ProductListVersionDTO(LocalDateTime.of(2025, 6, 1, 10, 0).plusSeconds(count), count);
+    }
 }